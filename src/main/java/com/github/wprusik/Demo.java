@@ -1,6 +1,8 @@
 package com.github.wprusik;
 
+import com.github.wprusik.radioscrapper.ContinuousCrawlSettings;
 import com.github.wprusik.radioscrapper.InternetRadioScrapper;
+import com.github.wprusik.radioscrapper.StreamProbeSettings;
 import com.github.wprusik.radioscrapper.model.RadioCategory;
 import com.github.wprusik.radioscrapper.model.RadioStation;
 import lombok.SneakyThrows;
@@ -27,6 +29,17 @@ public class Demo {
         print(categories);
     }
 
+    @SneakyThrows
+    private static void crawlContinuouslyTest() {
+        new InternetRadioScrapper(DATA_DIRECTORY).crawlContinuously(ContinuousCrawlSettings.DEFAULT);
+    }
+
+    @SneakyThrows
+    private static void probeStreamsTest() {
+        List<RadioCategory> categories = new InternetRadioScrapper(DATA_DIRECTORY).probeStreams(StreamProbeSettings.DEFAULT);
+        print(categories);
+    }
+
     private static void print(List<RadioCategory> categories) {
         for (RadioCategory cat : categories) {
             System.out.println("\n------------------\nCategory: " + cat.name());
@@ -42,6 +55,9 @@ public class Demo {
                 System.out.println("\t\t" + station.kbps() + " kbps");
                 System.out.println("\t\tGenres:\t" + String.join(", ", station.genres()));
                 System.out.println("\t\tPlaylist file:\t" + station.playlistFile());
+                if (station.probe() != null) {
+                    System.out.println("\t\tAlive:\t" + station.probe().alive());
+                }
             }
         }
     }
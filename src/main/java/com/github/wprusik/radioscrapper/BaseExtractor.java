@@ -4,7 +4,6 @@ import com.github.wprusik.radioscrapper.model.RadioCategory;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.htmlunit.WebClient;
 import org.htmlunit.html.DomNode;
 import org.htmlunit.html.HtmlAnchor;
 import org.htmlunit.html.HtmlElement;
@@ -19,30 +18,43 @@ import java.util.stream.StreamSupport;
 @RequiredArgsConstructor
 class BaseExtractor {
 
-    private final WebClient webClient;
+    private final WebClientPool webClients;
     private final String baseUrl;
     private final @Nullable StorageService storageService;
 
-    public BaseExtractor(WebClient webClient, String baseUrl, String baseDirectory) {
-        this.webClient = webClient;
+    public BaseExtractor(WebClientPool webClients, String baseUrl, String baseDirectory) {
+        this.webClients = webClients;
         this.baseUrl = baseUrl;
         this.storageService = baseDirectory != null ? new StorageService(baseDirectory) : null;
     }
 
-    @SneakyThrows
     List<RadioCategory> getAllRadioCategories() {
-        HtmlPage page = webClient.getPage(baseUrl + "/stations/");
-        Map<String, String> categoryLinks = page.getBody().getElementsByAttribute("dt", "class", "text-capitalize").stream()
+        return fetchRadioCategories(getCategoryLinks());
+    }
+
+    /**
+     * Returns links to all radio categories, mapped by category name
+     */
+    @SneakyThrows
+    Map<String, String> getCategoryLinks() {
+        HtmlPage page = webClients.getPage(baseUrl + "/stations/");
+        return page.getBody().getElementsByAttribute("dt", "class", "text-capitalize").stream()
                 .map(this::extractAnchor)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toMap(DomNode::getTextContent, e -> e.getAttribute("href")));
-        return fetchRadioCategories(categoryLinks);
+    }
+
+    /**
+     * Sorts genres from the longest name, so compound genres are recognized before their parts
+     */
+    static List<String> sortGenres(Collection<String> genres) {
+        return genres.stream().sorted(Comparator.comparingInt(String::length).reversed()).toList();
     }
 
     private List<RadioCategory> fetchRadioCategories(Map<String, String> categoryLinks) {
         List<RadioCategory> categories = storageService != null ? storageService.load() : new ArrayList<>();
-        List<String> genres = categoryLinks.keySet().stream().sorted(Comparator.comparingInt(String::length).reversed()).toList();
-        RadioCategoryExtractor radioCategoryExtractor = new RadioCategoryExtractor(webClient, baseUrl, genres);
+        List<String> genres = sortGenres(categoryLinks.keySet());
+        RadioCategoryExtractor radioCategoryExtractor = new RadioCategoryExtractor(webClients, baseUrl, genres);
         log.debug("Loaded radio categories: {}/{}", categories.size(), genres.size());
 
         for (Map.Entry<String, String> entry : categoryLinks.entrySet()) {
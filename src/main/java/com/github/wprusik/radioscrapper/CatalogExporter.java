@@ -0,0 +1,163 @@
+package com.github.wprusik.radioscrapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.wprusik.radioscrapper.model.RadioStation;
+import com.github.wprusik.radioscrapper.utils.PlaylistParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Exports stored radio stations into a single file. Stations are read and written one by one, so only identifiers
+ * of already exported stations are kept in memory - a station listed in several categories is exported once.
+ */
+@Slf4j
+class CatalogExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "uuid,name,url,genres,kbps,playlistFile,streams";
+
+    private final StorageService storageService;
+    private final ExportFormat format;
+    private final ExportFilter filter;
+    private final ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private final Set<UUID> exportedStations = new HashSet<>();
+    private int playlistEntries = 0;
+
+    CatalogExporter(StorageService storageService, ExportFormat format, ExportFilter filter) {
+        this.storageService = storageService;
+        this.format = format;
+        this.filter = filter;
+    }
+
+    /**
+     * @return number of exported stations
+     */
+    long export(Path target) {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonGenerator generator = mapper.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+
+            generator.setRootValueSeparator(null);
+            writeHeader(writer);
+            storageService.forEachStation(station -> {
+                if (filter.test(station) && !exportedStations.contains(station.uuid())) {
+                    exportStation(station, writer, generator);
+                }
+            });
+            generator.flush();
+            writeFooter(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Exported {} radio stations to {}", exportedStations.size(), target);
+        return exportedStations.size();
+    }
+
+    private void exportStation(RadioStation station, Writer writer, JsonGenerator generator) {
+        List<String> streams = readStreams(station);
+        // a playlist entry without stream is useless
+        if (streams.isEmpty() && (format == ExportFormat.M3U || format == ExportFormat.PLS)) {
+            return;
+        }
+        try {
+            switch (format) {
+                case M3U -> writeM3u(station, streams, writer);
+                case PLS -> writePls(station, streams, writer);
+                case CSV -> writeCsv(station, streams, writer);
+                case NDJSON -> writeJson(station, streams, generator);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        exportedStations.add(station.uuid());
+    }
+
+    private List<String> readStreams(RadioStation station) {
+        if (station.playlistFile() == null) {
+            return List.of();
+        }
+        Path playlist = Path.of(station.playlistFile());
+        if (!Files.isReadable(playlist)) {
+            log.warn("Playlist file of radio station {} not found: {}", station.name(), playlist);
+            return List.of();
+        }
+        return PlaylistParser.readStreamUrls(playlist);
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
+        switch (format) {
+            case M3U -> writer.write("#EXTM3U\n");
+            case PLS -> writer.write("[playlist]\n");
+            case CSV -> writer.write(CSV_HEADER + "\n");
+            case NDJSON -> { }
+        }
+    }
+
+    private void writeFooter(Writer writer) throws IOException {
+        if (format == ExportFormat.PLS) {
+            writer.write("NumberOfEntries=" + playlistEntries + "\nVersion=2\n");
+        }
+    }
+
+    private void writeM3u(RadioStation station, List<String> streams, Writer writer) throws IOException {
+        String title = toSingleLine(station.name());
+        for (String stream : streams) {
+            writer.write("#EXTINF:-1," + title + "\n" + stream + "\n");
+        }
+    }
+
+    private void writePls(RadioStation station, List<String> streams, Writer writer) throws IOException {
+        String title = toSingleLine(station.name());
+        for (String stream : streams) {
+            int entry = ++playlistEntries;
+            writer.write("File" + entry + "=" + stream + "\nTitle" + entry + "=" + title + "\nLength" + entry + "=-1\n");
+        }
+    }
+
+    private void writeCsv(RadioStation station, List<String> streams, Writer writer) throws IOException {
+        List<String> genres = station.genres() != null ? station.genres() : List.of();
+        writer.write(String.join(",",
+                station.uuid().toString(),
+                toCsvValue(station.name()),
+                toCsvValue(station.url()),
+                toCsvValue(String.join(";", genres)),
+                station.kbps() != null ? station.kbps().toString() : "",
+                toCsvValue(station.playlistFile()),
+                toCsvValue(String.join(" ", streams))));
+        writer.write('\n');
+    }
+
+    private void writeJson(RadioStation station, List<String> streams, JsonGenerator generator) throws IOException {
+        ObjectNode node = mapper.valueToTree(station);
+        ArrayNode streamsNode = node.putArray("streams");
+        streams.forEach(streamsNode::add);
+        generator.writeTree(node);
+        generator.writeRaw('\n');
+    }
+
+    private String toCsvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private String toSingleLine(String value) {
+        return value != null ? value.replace('\r', ' ').replace('\n', ' ') : "";
+    }
+}
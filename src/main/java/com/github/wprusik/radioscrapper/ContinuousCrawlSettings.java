@@ -0,0 +1,28 @@
+package com.github.wprusik.radioscrapper;
+
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * Settings of continuous crawl mode
+ * @param initialInterval - refresh interval of categories that have no history yet
+ * @param minInterval - lower bound of refresh interval, also used as retry delay after failure
+ * @param maxInterval - upper bound of refresh interval, also how often the category list is refreshed
+ * @param dailyRequestBudget - maximum number of requests sent per day, including playlist downloads
+ */
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record ContinuousCrawlSettings(Duration initialInterval, Duration minInterval, Duration maxInterval, long dailyRequestBudget) {
+
+    public static final ContinuousCrawlSettings DEFAULT = new ContinuousCrawlSettings(
+            Duration.ofDays(1), Duration.ofHours(6), Duration.ofDays(30), 50_000);
+
+    public ContinuousCrawlSettings {
+        if (minInterval.compareTo(maxInterval) > 0 || initialInterval.compareTo(minInterval) < 0 || initialInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("Intervals must satisfy: minInterval <= initialInterval <= maxInterval");
+        }
+        if (dailyRequestBudget <= 0) {
+            throw new IllegalArgumentException("Daily request budget must be positive");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.wprusik.radioscrapper;
+
+import org.htmlunit.WebClient;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.htmlunit.util.WebConnectionWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts requests sent and bytes received through a {@link WebClient}
+ */
+class CountingWebConnection extends WebConnectionWrapper {
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+
+    private CountingWebConnection(WebClient webClient) {
+        super(webClient);
+    }
+
+    /**
+     * Installs a new counting connection in given web client
+     */
+    static CountingWebConnection install(WebClient webClient) {
+        return new CountingWebConnection(webClient);    // wrapper registers itself in the client
+    }
+
+    @Override
+    public WebResponse getResponse(WebRequest request) throws IOException {
+        requestCount.incrementAndGet();
+        WebResponse response = super.getResponse(request);
+        byteCount.addAndGet(Math.max(response.getContentLength(), 0));
+        return response;
+    }
+
+    long getRequestCount() {
+        return requestCount.get();
+    }
+
+    long getByteCount() {
+        return byteCount.get();
+    }
+}
@@ -0,0 +1,241 @@
+package com.github.wprusik.radioscrapper;
+
+import com.github.wprusik.radioscrapper.model.CategorySchedule;
+import com.github.wprusik.radioscrapper.model.CrawlSchedule;
+import com.github.wprusik.radioscrapper.model.RadioCategory;
+import com.github.wprusik.radioscrapper.model.RadioStation;
+import com.github.wprusik.radioscrapper.model.StreamProbe;
+import com.github.wprusik.radioscrapper.utils.UUIDGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Continuously re-crawls radio categories. Each category has its own refresh interval, which is shortened when
+ * the category changed since the previous crawl and extended when it didn't, so it follows the actual change rate.
+ * Due categories are taken from a priority queue as long as the global request budget allows it.
+ */
+@Slf4j
+class CrawlScheduler {
+
+    private static final double CHANGED_INTERVAL_FACTOR = 0.5;
+    private static final double UNCHANGED_INTERVAL_FACTOR = 1.5;
+    private static final long DEFAULT_CATEGORY_COST = 100;
+
+    private final WebClientPool webClients;
+    private final String baseUrl;
+    private final StorageService storageService;
+    private final ContinuousCrawlSettings settings;
+    private final PriorityQueue<CategorySchedule> queue = new PriorityQueue<>(Comparator.comparingLong(CategorySchedule::nextCrawl));
+    private final RequestBudget budget;
+    private final List<RadioCategory> categories;
+    private List<String> genres = List.of();
+    private long nextIndexRefresh = 0;
+
+    CrawlScheduler(WebClientPool webClients, String baseUrl, StorageService storageService, ContinuousCrawlSettings settings) {
+        this.webClients = webClients;
+        this.baseUrl = baseUrl;
+        this.storageService = storageService;
+        this.settings = settings;
+        this.categories = storageService.load();
+
+        Optional<CrawlSchedule> schedule = storageService.loadSchedule();
+        long dailyLimit = settings.dailyRequestBudget();
+        this.budget = schedule
+                .map(s -> new RequestBudget(dailyLimit, s.availableRequests(), s.updatedAt()))
+                .orElseGet(() -> new RequestBudget(dailyLimit, dailyLimit, System.currentTimeMillis()));
+        schedule.map(CrawlSchedule::categories).ifPresent(queue::addAll);
+    }
+
+    /**
+     * Runs until the current thread is interrupted
+     */
+    void run() throws InterruptedException {
+        log.info("Starting continuous crawl with {} scheduled categories", queue.size());
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.currentTimeMillis();
+            if (now >= nextIndexRefresh) {
+                refreshIndex(now);
+            }
+            CategorySchedule due = queue.peek();
+            long waitMillis = nextIndexRefresh - now;
+            if (due != null) {
+                long dueIn = Math.max(due.nextCrawl() - now, budget.millisUntilAvailable(estimateCost(due), now));
+                waitMillis = Math.min(waitMillis, dueIn);
+            }
+            if (waitMillis > 0) {
+                log.debug("Waiting {} ms for next category", waitMillis);
+                Thread.sleep(waitMillis);
+                continue;
+            }
+            queue.poll();
+            queue.add(crawl(due));
+            persist();
+        }
+        throw new InterruptedException();
+    }
+
+    private void refreshIndex(long now) {
+        Map<String, String> categoryLinks;
+        long requestsBefore = webClients.getRequestCount();
+        try {
+            categoryLinks = new BaseExtractor(webClients, baseUrl, storageService).getCategoryLinks();
+        } catch (Exception e) {
+            log.warn("Unable to refresh radio category list", e);
+            nextIndexRefresh = now + settings.minInterval().toMillis();
+            return;
+        } finally {
+            budget.consume(webClients.getRequestCount() - requestsBefore, now);
+        }
+        genres = BaseExtractor.sortGenres(categoryLinks.keySet());
+
+        Map<String, CategorySchedule> scheduled = queue.stream().collect(Collectors.toMap(CategorySchedule::name, s -> s));
+        queue.clear();
+        for (Map.Entry<String, String> link : categoryLinks.entrySet()) {
+            CategorySchedule schedule = scheduled.get(link.getKey());
+            queue.add(schedule != null
+                    ? schedule.toBuilder().uri(link.getValue()).build()
+                    : createSchedule(link.getKey(), link.getValue(), now));
+        }
+        log.debug("Refreshed radio category list: {} categories", queue.size());
+        nextIndexRefresh = now + settings.maxInterval().toMillis();
+        persist();
+    }
+
+    private CategorySchedule createSchedule(String name, String uri, long now) {
+        long interval = settings.initialInterval().toMillis();
+        // categories fetched before are spread over the initial interval instead of being re-crawled all at once
+        long nextCrawl = findCategory(name) != null ? now + ThreadLocalRandom.current().nextLong(interval) : now;
+        return CategorySchedule.builder()
+                .name(name)
+                .uri(uri)
+                .intervalMillis(interval)
+                .nextCrawl(nextCrawl)
+                .build();
+    }
+
+    private CategorySchedule crawl(CategorySchedule schedule) {
+        log.debug("Crawling radio category {}", schedule.name());
+        long now = System.currentTimeMillis();
+        RadioCategory previous = findCategory(schedule.name());
+
+        long requestsBefore = webClients.getRequestCount();
+        try {
+            RadioCategory category = new RadioCategoryExtractor(webClients, baseUrl, genres).getRadioCategory(schedule.name(), schedule.uri());
+            if (Thread.currentThread().isInterrupted()) {
+                return discardInterrupted(schedule);
+            }
+            category = keepProbes(previous, storageService.storePlaylists(category));
+            replaceCategory(previous, category);
+            storageService.save(categories);
+            return reschedule(schedule, previous, category, now, webClients.getRequestCount() - requestsBefore);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return discardInterrupted(schedule);
+            }
+            log.warn("Unable to crawl radio category " + schedule.name(), e);
+            return schedule.toBuilder()
+                    .nextCrawl(now + settings.minInterval().toMillis())
+                    .requestCount(Math.max(schedule.requestCount(), webClients.getRequestCount() - requestsBefore))
+                    .build();
+        } finally {
+            budget.consume(webClients.getRequestCount() - requestsBefore, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Stations missing due to interruption must not replace the saved ones, so the partial result is thrown away
+     * and the category stays due
+     */
+    private CategorySchedule discardInterrupted(CategorySchedule schedule) {
+        log.debug("Crawl of radio category {} interrupted, discarding partial result", schedule.name());
+        return schedule;
+    }
+
+    private CategorySchedule reschedule(CategorySchedule schedule, @Nullable RadioCategory previous, RadioCategory current,
+                                        long now, long requestCount) {
+        long interval = schedule.intervalMillis();
+        int changeCount = schedule.changeCount();
+        // the first crawl says nothing about the change rate
+        if (previous != null) {
+            boolean changed = hasChanged(previous, current);
+            interval = (long) (interval * (changed ? CHANGED_INTERVAL_FACTOR : UNCHANGED_INTERVAL_FACTOR));
+            interval = Math.max(settings.minInterval().toMillis(), Math.min(settings.maxInterval().toMillis(), interval));
+            changeCount += changed ? 1 : 0;
+            log.debug("Radio category {} {}, next crawl in {} ms", current.name(), changed ? "changed" : "unchanged", interval);
+        }
+        return schedule.toBuilder()
+                .intervalMillis(interval)
+                .lastCrawl(now)
+                .nextCrawl(now + interval)
+                .crawlCount(schedule.crawlCount() + 1)
+                .changeCount(changeCount)
+                .requestCount(requestCount)
+                .build();
+    }
+
+    private boolean hasChanged(RadioCategory previous, RadioCategory current) {
+        return !Objects.equals(previous.description(), current.description())
+                || !getStationIds(previous).equals(getStationIds(current));
+    }
+
+    /**
+     * Freshly crawled stations have no UUID, so the key is computed from content, the same way as for loaded ones
+     */
+    private Set<UUID> getStationIds(RadioCategory category) {
+        return category.stations().stream().map(this::getStationId).collect(Collectors.toSet());
+    }
+
+    private UUID getStationId(RadioStation station) {
+        return UUIDGenerator.create(station.name(), station.url(), station.kbps());
+    }
+
+    /**
+     * Copies stream probe results of unchanged stations, which the extractor doesn't know about
+     */
+    private RadioCategory keepProbes(@Nullable RadioCategory previous, RadioCategory current) {
+        if (previous == null) {
+            return current;
+        }
+        Map<UUID, StreamProbe> probes = new HashMap<>();
+        for (RadioStation station : previous.stations()) {
+            if (station.probe() != null) {
+                probes.put(getStationId(station), station.probe());
+            }
+        }
+        if (probes.isEmpty()) {
+            return current;
+        }
+        List<RadioStation> stations = new ArrayList<>(current.stations().size());
+        for (RadioStation station : current.stations()) {
+            StreamProbe probe = station.probe() == null ? probes.get(getStationId(station)) : null;
+            stations.add(probe != null ? station.toBuilder().probe(probe).build() : station);
+        }
+        return current.toBuilder().stations(stations).build();
+    }
+
+    private long estimateCost(CategorySchedule schedule) {
+        return schedule.requestCount() > 0 ? schedule.requestCount() : DEFAULT_CATEGORY_COST;
+    }
+
+    private @Nullable RadioCategory findCategory(String name) {
+        return categories.stream().filter(c -> name.equalsIgnoreCase(c.name())).findAny().orElse(null);
+    }
+
+    private void replaceCategory(@Nullable RadioCategory previous, RadioCategory category) {
+        int index = categories.indexOf(previous);
+        if (index >= 0) {
+            categories.set(index, category);
+        } else {
+            categories.add(category);
+        }
+    }
+
+    private void persist() {
+        List<CategorySchedule> schedules = queue.stream().sorted(queue.comparator()).toList();
+        storageService.saveSchedule(new CrawlSchedule(schedules, budget.getAvailable(), budget.getUpdatedAt()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.wprusik.radioscrapper;
+
+import com.github.wprusik.radioscrapper.model.RadioStation;
+import lombok.Builder;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selects radio stations to export
+ * @param genres - if specified, a station must have at least one of given genres (case-insensitive)
+ * @param minKbps - if specified, minimal station bitrate
+ * @param maxKbps - if specified, maximal station bitrate
+ * @param alive - if specified, a station must have been probed with given result, see {@link InternetRadioScrapper#probeStreams}
+ */
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record ExportFilter(@Nullable Set<String> genres, @Nullable Integer minKbps, @Nullable Integer maxKbps,
+                           @Nullable Boolean alive) implements Predicate<RadioStation> {
+
+    public static final ExportFilter ALL = new ExportFilter(null, null, null, null);
+
+    @Override
+    public boolean test(RadioStation station) {
+        return matchesGenres(station) && matchesKbps(station) && matchesAlive(station);
+    }
+
+    private boolean matchesGenres(RadioStation station) {
+        if (genres == null || genres.isEmpty()) {
+            return true;
+        }
+        return station.genres() != null && station.genres().stream()
+                .anyMatch(genre -> genres.stream().anyMatch(genre::equalsIgnoreCase));
+    }
+
+    private boolean matchesKbps(RadioStation station) {
+        if (minKbps == null && maxKbps == null) {
+            return true;
+        }
+        return station.kbps() != null
+                && (minKbps == null || station.kbps() >= minKbps)
+                && (maxKbps == null || station.kbps() <= maxKbps);
+    }
+
+    private boolean matchesAlive(RadioStation station) {
+        return alive == null || (station.probe() != null && station.probe().alive() == alive);
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.wprusik.radioscrapper;
+
+public enum ExportFormat {
+    /** Extended M3U playlist with all streams of exported stations */
+    M3U,
+    /** PLS playlist with all streams of exported stations */
+    PLS,
+    /** One station per line, with its streams separated by spaces */
+    CSV,
+    /** Newline delimited JSON, one station object per line, with its streams */
+    NDJSON
+}
@@ -1,13 +1,14 @@
 package com.github.wprusik.radioscrapper;
 
 import com.github.wprusik.radioscrapper.exception.TooManyErrorsException;
+import com.github.wprusik.radioscrapper.jfr.CrawlEvent;
+import com.github.wprusik.radioscrapper.jfr.DownloadEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.htmlunit.FailingHttpStatusCodeException;
 import org.htmlunit.Page;
-import org.htmlunit.WebClient;
 
 import java.io.*;
 import java.net.MalformedURLException;
@@ -22,23 +23,41 @@ class FileDownloader {
 
     private static final int FAIL_LIMIT = 50;
 
-    private final WebClient webClient;
+    private final WebClientPool webClients;
+    private final String category;
     private int failedCount = 0;
 
     @SneakyThrows
     @SuppressWarnings({"SameParameterValue", "ResultOfMethodCallIgnored"})
     Optional<File> download(String fileUrl, String extension) {
-        URL url = new URL(fileUrl);
-        File targetFile = Files.createTempFile("ir_", "." + extension).toFile();
-        targetFile.deleteOnExit();
+        DownloadEvent event = new DownloadEvent();
+        event.begin();
+        long bytes = 0;
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            URL url = new URL(fileUrl);
+            File targetFile = Files.createTempFile("ir_", "." + extension).toFile();
+            targetFile.deleteOnExit();
 
-        tryToConnect(url).ifPresent(page -> saveToFile(page, targetFile));
+            // an empty result means the download failed, which is told apart from an empty playlist
+            Optional<Page> page = tryToConnect(url);
+            if (page.isEmpty()) {
+                targetFile.delete();
+                return Optional.empty();
+            }
+            saveToFile(page.get(), targetFile);
 
-        if (targetFile.length() == 0) {
-            targetFile.delete();
-            return Optional.empty();
+            bytes = targetFile.length();
+            if (bytes == 0) {
+                targetFile.delete();
+                outcome = CrawlEvent.EMPTY;
+                return Optional.empty();
+            }
+            outcome = CrawlEvent.SUCCESS;
+            return Optional.of(targetFile);
+        } finally {
+            event.finish(fileUrl, category, bytes, outcome);
         }
-        return Optional.of(targetFile);
     }
 
     private void saveToFile(Page page, File targetFile) {
@@ -51,10 +70,14 @@ class FileDownloader {
         }
     }
 
-    private Optional<Page> tryToConnect(URL url) {
+    /**
+     * Download errors are counted and reported as an empty result, interruption is thrown out,
+     * so that an interrupted crawl isn't mistaken for a category with failed playlists
+     */
+    private Optional<Page> tryToConnect(URL url) throws InterruptedException {
         try {
             URL finalURL = url;
-            Page page = callWithTimeout(() -> webClient.getPage(finalURL));   // due to HtmlUnit bug
+            Page page = callWithTimeout(() -> webClients.getPage(finalURL));   // due to HtmlUnit bug
             return Optional.of(page);
         } catch (FailingHttpStatusCodeException e) {
             handleFail(e, url);
@@ -62,6 +85,9 @@ class FileDownloader {
                 url = createURL(url.toString().replace("http:", "https:"));
                 return tryToConnect(url);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
         } catch (Exception e) {
             handleFail(e, url);
         }
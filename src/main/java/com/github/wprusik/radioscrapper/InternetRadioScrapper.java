@@ -6,6 +6,7 @@ import org.htmlunit.BrowserVersion;
 import org.htmlunit.WebClient;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -14,17 +15,34 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InternetRadioScrapper {
 
-    private final static String BASE_URL = "https://www.internet-radio.com";
+    public final static String DEFAULT_BASE_URL = "https://www.internet-radio.com";
 
     private final BrowserVersion browserVersion;
+    private final String baseUrl;
     private final String baseDirectory;
+    private final WebClientPoolSettings webClientPoolSettings;
 
     /**
      * @param baseDirectory - if specified, it saves whole configuration in given directory
      */
     public InternetRadioScrapper(@Nullable String baseDirectory) {
-        this.browserVersion = BrowserVersion.BEST_SUPPORTED;
-        this.baseDirectory = baseDirectory;
+        this(DEFAULT_BASE_URL, baseDirectory);
+    }
+
+    /**
+     * @param baseUrl - address of the scrapped site, e.g. a local stand-in server
+     * @param baseDirectory - if specified, it saves whole configuration in given directory
+     */
+    public InternetRadioScrapper(String baseUrl, @Nullable String baseDirectory) {
+        this(BrowserVersion.BEST_SUPPORTED, baseUrl, baseDirectory);
+    }
+
+    public InternetRadioScrapper(BrowserVersion browserVersion, @Nullable String baseDirectory) {
+        this(browserVersion, DEFAULT_BASE_URL, baseDirectory);
+    }
+
+    public InternetRadioScrapper(BrowserVersion browserVersion, String baseUrl, @Nullable String baseDirectory) {
+        this(browserVersion, baseUrl, baseDirectory, WebClientPoolSettings.DEFAULT);
     }
 
     /**
@@ -42,8 +60,23 @@ public class InternetRadioScrapper {
         if (redownload) {
             clearWorkspace();
         }
-        try (WebClient webClient = createWebClient()) {
-            return new BaseExtractor(webClient, BASE_URL, baseDirectory).getAllRadioCategories();
+        try (WebClientPool webClients = createWebClientPool()) {
+            return new BaseExtractor(webClients, baseUrl, baseDirectory).getAllRadioCategories();
+        }
+    }
+
+    /**
+     * Keeps the configuration fresh, re-crawling each radio category according to how often it changes.
+     * Scheduling state is saved in the base directory, so the crawl can be resumed after restart.
+     * Blocks until the current thread is interrupted.
+     */
+    public void crawlContinuously(ContinuousCrawlSettings settings) throws InterruptedException {
+        if (baseDirectory == null) {
+            throw new IllegalArgumentException("Unable to crawl continuously - base directory not specified");
+        }
+        StorageService storageService = new StorageService(baseDirectory);
+        try (WebClientPool webClients = createWebClientPool()) {
+            new CrawlScheduler(webClients, baseUrl, storageService, settings).run();
         }
     }
 
@@ -58,6 +91,31 @@ public class InternetRadioScrapper {
         return storageService.load();
     }
 
+    /**
+     * Exports saved configuration into a single file, without connecting to network
+     * @param filter - selects radio stations to export, see {@link ExportFilter#ALL}
+     * @return number of exported radio stations
+     */
+    public long export(Path target, ExportFormat format, ExportFilter filter) {
+        if (baseDirectory == null) {
+            throw new IllegalArgumentException("Unable to export configuration - base directory not specified");
+        }
+        StorageService storageService = new StorageService(baseDirectory);
+        return new CatalogExporter(storageService, format, filter).export(target);
+    }
+
+    /**
+     * Checks streams of all saved radio stations, reading only response headers and a few KB of audio,
+     * and stores liveness, latency, content type and bitrate of each station in the configuration
+     */
+    public List<RadioCategory> probeStreams(StreamProbeSettings settings) throws InterruptedException {
+        if (baseDirectory == null) {
+            throw new IllegalArgumentException("Unable to probe streams - base directory not specified");
+        }
+        StorageService storageService = new StorageService(baseDirectory);
+        return new StreamProber(storageService, settings).probeAll();
+    }
+
     private void clearWorkspace() {
         if (baseDirectory != null) {
             StorageService storageService = new StorageService(baseDirectory);
@@ -65,11 +123,18 @@ public class InternetRadioScrapper {
         }
     }
 
+    private WebClientPool createWebClientPool() {
+        return new WebClientPool(this::createWebClient, webClientPoolSettings);
+    }
+
     private WebClient createWebClient() {
         WebClient client = new WebClient(browserVersion);
         client.getOptions().setJavaScriptEnabled(false);
         client.getOptions().setCssEnabled(false);
         client.getOptions().setTimeout(5000);
+        client.getOptions().setHistorySizeLimit(webClientPoolSettings.historySize());
+        client.getOptions().setHistoryPageCacheLimit(0);
+        client.getCache().setMaxSize(webClientPoolSettings.cacheSize());
         return client;
     }
 }
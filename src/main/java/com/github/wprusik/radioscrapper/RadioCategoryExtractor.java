@@ -1,11 +1,13 @@
 package com.github.wprusik.radioscrapper;
 
+import com.github.wprusik.radioscrapper.jfr.CategoryFetchEvent;
+import com.github.wprusik.radioscrapper.jfr.CrawlEvent;
+import com.github.wprusik.radioscrapper.jfr.PaginationFetchEvent;
 import com.github.wprusik.radioscrapper.model.RadioCategory;
 import com.github.wprusik.radioscrapper.model.RadioStation;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.htmlunit.WebClient;
 import org.htmlunit.html.*;
 
 import java.io.IOException;
@@ -23,24 +25,34 @@ import java.util.stream.StreamSupport;
 @RequiredArgsConstructor
 class RadioCategoryExtractor {
 
-    private final WebClient webClient;
+    private final WebClientPool webClients;
     private final String baseUrl;
     private final List<String> availableGenres;
 
     @SneakyThrows
     RadioCategory getRadioCategory(String name, String uri) {
-        HtmlPage page = webClient.getPage(baseUrl + uri);
-        String description = extractDescription(page);
-        List<HtmlPage> pages = getPages(page);
-
-        log.debug("Found {} pages", pages.size());
-        AtomicInteger pageNumber = new AtomicInteger(0);
-
-        List<RadioStation> stations = pages.stream()
-                .map(p -> extractRadioStations(p, pageNumber.incrementAndGet(), pages.size()))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
-        return new RadioCategory(name, description, stations);
+        CategoryFetchEvent event = new CategoryFetchEvent();
+        event.begin();
+        long bytes = 0;
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            HtmlPage page = webClients.getPage(baseUrl + uri);
+            String description = extractDescription(page);
+            List<HtmlPage> pages = getPages(name, page);
+            bytes = pages.stream().mapToLong(this::getContentLength).sum();
+
+            log.debug("Found {} pages", pages.size());
+            AtomicInteger pageNumber = new AtomicInteger(0);
+
+            List<RadioStation> stations = pages.stream()
+                    .map(p -> extractRadioStations(name, p, pageNumber.incrementAndGet(), pages.size()))
+                    .flatMap(Collection::stream)
+                    .collect(Collectors.toList());
+            outcome = stations.isEmpty() ? CrawlEvent.EMPTY : CrawlEvent.SUCCESS;
+            return new RadioCategory(name, description, stations);
+        } finally {
+            event.finish(baseUrl + uri, name, bytes, outcome);
+        }
     }
 
     private String extractDescription(HtmlPage page) {
@@ -55,21 +67,35 @@ class RadioCategoryExtractor {
         return elements.get(0).getTextContent();
     }
 
-    private List<HtmlPage> getPages(HtmlPage page) throws IOException {
-        List<HtmlPage> result = new ArrayList<>();
-        result.add(page);
-        List<HtmlElement> pagination = page.getBody().getElementsByAttribute("ul", "class", "pagination");
-
-        if (!pagination.isEmpty()) {
-            HtmlUnorderedList ul = (HtmlUnorderedList) pagination.get(0);
-            Map<Integer, URL> pageLinks = extractPageLinks(ul);
-
-            for (Map.Entry<Integer, URL> link : pageLinks.entrySet()) {
-                HtmlPage htmlpage = webClient.getPage(link.getValue());
-                result.add(htmlpage);
+    private List<HtmlPage> getPages(String category, HtmlPage page) throws IOException {
+        PaginationFetchEvent event = new PaginationFetchEvent();
+        event.begin();
+        long bytes = 0;
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            List<HtmlPage> result = new ArrayList<>();
+            result.add(page);
+            List<HtmlElement> pagination = page.getBody().getElementsByAttribute("ul", "class", "pagination");
+
+            if (!pagination.isEmpty()) {
+                HtmlUnorderedList ul = (HtmlUnorderedList) pagination.get(0);
+                Map<Integer, URL> pageLinks = extractPageLinks(ul);
+
+                for (Map.Entry<Integer, URL> link : pageLinks.entrySet()) {
+                    HtmlPage htmlpage = webClients.getPage(link.getValue());
+                    bytes += getContentLength(htmlpage);
+                    result.add(htmlpage);
+                }
             }
+            outcome = result.size() > 1 ? CrawlEvent.SUCCESS : CrawlEvent.EMPTY;
+            return result;
+        } finally {
+            event.finish(page.getUrl().toString(), category, bytes, outcome);
         }
-        return result;
+    }
+
+    private long getContentLength(HtmlPage page) {
+        return Math.max(page.getWebResponse().getContentLength(), 0);
     }
 
     private Map<Integer, URL> extractPageLinks(HtmlUnorderedList ul) {
@@ -96,16 +122,19 @@ class RadioCategoryExtractor {
     }
 
     @SneakyThrows
-    private List<RadioStation> extractRadioStations(HtmlPage page, int pageNumber, int pagesCount) {
+    private List<RadioStation> extractRadioStations(String category, HtmlPage page, int pageNumber, int pagesCount) {
         HtmlTableBody tbody = getTableBody(page);
         List<HtmlTableRow> rows = extractRows(tbody);
         List<RadioStation> result = new ArrayList<>();
-        RadioStationExtractor radioStationExtractor = new RadioStationExtractor(webClient, baseUrl, availableGenres);
+        RadioStationExtractor radioStationExtractor = new RadioStationExtractor(webClients, baseUrl, category, availableGenres);
         log.debug("Processing page {}/{}", pageNumber, pagesCount);
 
         for (int i = 0; i < rows.size(); i++) {
             log.debug("Retrieving station {}/{}", (i + 1), rows.size());
-            radioStationExtractor.extractRadioInfo(rows.get(i)).ifPresent(result::add);
+            RadioStation station = radioStationExtractor.extractRadioInfo(rows.get(i));
+            if (station != null) {
+                result.add(station);
+            }
         }
         return result;
     }
@@ -1,99 +1,189 @@
 package com.github.wprusik.radioscrapper;
 
+import com.github.wprusik.radioscrapper.jfr.CrawlEvent;
+import com.github.wprusik.radioscrapper.jfr.StationExtractEvent;
 import com.github.wprusik.radioscrapper.model.RadioStation;
 import org.apache.commons.lang3.StringUtils;
-import org.htmlunit.WebClient;
 import org.htmlunit.html.*;
+import org.w3c.dom.Node;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.StreamSupport;
 
+/**
+ * Extracts radio stations from table rows. Each cell is visited once: text of its children is collected into
+ * a reusable buffer, and name, URL, genres and bitrate are taken from it, so an instance must not be shared
+ * between threads.
+ */
 class RadioStationExtractor {
 
     private final static Pattern KBPS_PATTERN = Pattern.compile("(?<number>\\d+)[ ](Kbps)");
     private final static Pattern GENRES_PATTERN = Pattern.compile("(Genres: )(?<genres>(\\w+)[ ]?(((\\w+[ ])+)?\\w+)?)");
+    private final static String M3U_PATH_PREFIX = "/servers/tools/playlistgenerator";
+    private final static String URL_PREFIX = "https://";
+    private final static String KBPS_SUFFIX = " Kbps";
 
     private final String baseUrl;
+    private final String category;
     private final FileDownloader fileDownloader;
     private final List<String> availableGenres;
 
-    public RadioStationExtractor(WebClient webClient, String baseUrl, List<String> availableGenres) {
+    // buffers reused for every cell
+    private final StringBuilder cellText = new StringBuilder(1024);
+    private final StringBuilder kbpsText = new StringBuilder(64);
+    private final Matcher genresMatcher = GENRES_PATTERN.matcher("");
+    private final Matcher kbpsMatcher = KBPS_PATTERN.matcher("");
+
+    public RadioStationExtractor(WebClientPool webClients, String baseUrl, String category, List<String> availableGenres) {
         this.baseUrl = baseUrl;
-        this.fileDownloader = new FileDownloader(webClient);
+        this.category = category;
+        this.fileDownloader = new FileDownloader(webClients, category);
         this.availableGenres = availableGenres;
     }
 
-    Optional<RadioStation> extractRadioInfo(HtmlTableRow row) {
-        RadioStation.Builder builder = RadioStation.builder();
+    @Nullable
+    RadioStation extractRadioInfo(HtmlTableRow row) {
+        StationExtractEvent event = new StationExtractEvent();
+        event.begin();
+        RadioStation station = null;
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            RadioStation.Builder builder = RadioStation.builder();
 
-        for (DomElement el : row.getChildElements()) {
-            if (el instanceof HtmlTableDataCell) {
-                processTableCell((HtmlTableDataCell) el, builder);
+            for (DomElement el : row.getChildElements()) {
+                if (el instanceof HtmlTableDataCell cell) {
+                    processTableCell(cell, builder);
+                }
             }
+            station = builder.build();
+            if (isComplete(station)) {
+                outcome = CrawlEvent.SUCCESS;
+                return station;
+            }
+            outcome = CrawlEvent.INCOMPLETE;
+            return null;
+        } finally {
+            String url = station != null ? station.url() : null;
+            long bytes = event.isEnabled() && station != null && station.playlistFile() != null ? new File(station.playlistFile()).length() : 0;
+            event.finish(url, category, bytes, outcome);
         }
-        RadioStation station = builder.build();
-        if (isComplete(station)) {
-            return Optional.of(station);
-        }
-        return Optional.empty();
     }
 
     private void processTableCell(HtmlTableDataCell cell, RadioStation.Builder builder) {
         if (isPlayerSection(cell)) {
-            fetchPlaylist(cell).ifPresent(builder::playlistFile);
-        } else if (isMiddleSection(cell)) {
-            extractRadioName(cell).ifPresent(builder::name);
-            extractRadioUrl(cell).ifPresent(builder::url);
-            extractGenres(cell).ifPresent(builder::genres);
-        } else if (isRightSection(cell)) {
-            extractKbps(cell).ifPresent(builder::kbps);
+            String playlist = fetchPlaylist(cell);
+            if (playlist != null) {
+                builder.playlistFile(playlist);
+            }
+        } else {
+            processTextCell(cell, builder);
         }
     }
 
-    private Optional<String> fetchPlaylist(HtmlTableDataCell cell) {
-        return findM3uURL(cell)
-                .flatMap(url -> fileDownloader.download(url, "m3u"))
-                .map(File::getAbsolutePath);
+    private @Nullable String fetchPlaylist(HtmlTableDataCell cell) {
+        String url = findM3uURL(cell);
+        if (url == null) {
+            return null;
+        }
+        return fileDownloader.download(url, "m3u").map(File::getAbsolutePath).orElse(null);
     }
 
-    private Optional<String> findM3uURL(HtmlTableDataCell cell) {
-        return cell.getElementsByAttribute("a", "title", "M3U Playlist File").stream()
-                .filter(el -> el instanceof HtmlAnchor)
-                .map(el -> el.getAttribute("href"))
-                .filter(StringUtils::isNotBlank)
-                .filter(s -> s.startsWith("/servers/tools/playlistgenerator"))
-                .filter(s -> !s.contains("panel.deepradio"))
-                .map(el -> baseUrl + el)
-                .findAny();
+    private @Nullable String findM3uURL(HtmlTableDataCell cell) {
+        for (HtmlElement el : cell.getHtmlElementDescendants()) {
+            if (el instanceof HtmlAnchor && "M3U Playlist File".equals(el.getAttribute("title"))) {
+                String href = el.getAttribute("href");
+                if (StringUtils.isNotBlank(href) && href.startsWith(M3U_PATH_PREFIX) && !href.contains("panel.deepradio")) {
+                    return baseUrl + href;
+                }
+            }
+        }
+        return null;
     }
 
-    private Optional<String> extractRadioName(HtmlTableDataCell cell) {
-        return StreamSupport.stream(cell.getChildElements().spliterator(), false)
-                .filter(el -> el instanceof HtmlHeading4)
-                .map(DomNode::getTextContent)
-                .map(String::trim)
-                .filter(StringUtils::isNotEmpty)
-                .findAny();
+    /**
+     * Walks direct children of the middle or right cell once. Text of each child is appended to {@link #cellText},
+     * so it serves both as the child's own text and as part of the whole cell text.
+     */
+    private void processTextCell(HtmlTableDataCell cell, RadioStation.Builder builder) {
+        boolean rightSection = isRightSection(cell);
+        boolean middleSection = false;
+        boolean kbpsFound = false;
+        String name = null;
+        String url = null;
+        Integer kbps = null;
+        cellText.setLength(0);
+
+        for (DomNode child : cell.getChildren()) {
+            int start = cellText.length();
+            short type = child.getNodeType();
+            // the same as DomNode.getTextContent() - comments and processing instructions are excluded from parent text
+            boolean excluded = type == Node.COMMENT_NODE || type == Node.PROCESSING_INSTRUCTION_NODE;
+            if (excluded) {
+                cellText.append(child.getNodeValue());
+            } else {
+                appendTextContent(child, cellText);
+            }
+            int end = cellText.length();
+
+            if (child instanceof HtmlHeading4) {
+                middleSection |= ((HtmlHeading4) child).getAttribute("class").contains("text-danger");
+                if (name == null) {
+                    name = trimmedOrNull(cellText, start, end);
+                }
+            }
+            if (url == null && startsWithTrimmed(cellText, start, end, URL_PREFIX)) {
+                url = trimmedOrNull(cellText, start, end);
+            }
+            if (rightSection && !kbpsFound && containsKbps(cellText, start, end)) {
+                kbpsFound = true;
+                kbps = parseKbps();
+            }
+            if (excluded) {
+                cellText.setLength(start);
+            }
+        }
+
+        if (middleSection) {
+            if (name != null) {
+                builder.name(name);
+            }
+            if (url != null) {
+                builder.url(url);
+            }
+            List<String> genres = extractGenres(cellText);
+            if (genres != null) {
+                builder.genres(genres);
+            }
+        } else if (rightSection && kbps != null) {
+            builder.kbps(kbps);
+        }
     }
 
-    private Optional<String> extractRadioUrl(HtmlTableDataCell cell) {
-        return StreamSupport.stream(cell.getChildren().spliterator(), false)
-                .map(el -> el.getTextContent().trim())
-                .filter(t -> t.startsWith("https://"))
-                .findAny();
+    private void appendTextContent(DomNode node, StringBuilder target) {
+        switch (node.getNodeType()) {
+            case Node.TEXT_NODE, Node.CDATA_SECTION_NODE, Node.COMMENT_NODE, Node.PROCESSING_INSTRUCTION_NODE ->
+                    target.append(node.getNodeValue());
+            case Node.ELEMENT_NODE, Node.ATTRIBUTE_NODE, Node.ENTITY_REFERENCE_NODE, Node.ENTITY_NODE, Node.DOCUMENT_FRAGMENT_NODE -> {
+                for (DomNode child : node.getChildren()) {
+                    short type = child.getNodeType();
+                    if (type != Node.COMMENT_NODE && type != Node.PROCESSING_INSTRUCTION_NODE) {
+                        appendTextContent(child, target);
+                    }
+                }
+            }
+            default -> target.append(node.getTextContent());
+        }
     }
 
-    private Optional<List<String>> extractGenres(HtmlTableDataCell cell) {
-        Matcher matcher = GENRES_PATTERN.matcher(cell.getTextContent());
-        if (matcher.find()) {
+    private @Nullable List<String> extractGenres(CharSequence text) {
+        genresMatcher.reset(text);
+        if (genresMatcher.find()) {
             List<String> genres = new ArrayList<>();
-            String genresLine = matcher.group("genres");
+            String genresLine = genresMatcher.group("genres");
 
             for (String genre : availableGenres) {
                 if (genresLine.contains(genre)) {
@@ -102,40 +192,81 @@ class RadioStationExtractor {
                 }
             }
             if (StringUtils.isNotBlank(genresLine)) {
-                String[] unrecognizedGenres = genresLine.trim().split(" ");
-                Arrays.stream(unrecognizedGenres)
-                        .map(String::trim)
-                        .filter(s -> s.length() > 2)
-                        .forEach(genres::add);
+                for (String unrecognizedGenre : genresLine.trim().split(" ")) {
+                    String genre = unrecognizedGenre.trim();
+                    if (genre.length() > 2) {
+                        genres.add(genre);
+                    }
+                }
             }
-            return Optional.of(genres);
+            return genres;
         }
-        return Optional.empty();
+        return null;
     }
 
-    private Optional<Integer> extractKbps(HtmlTableDataCell cell) {
-        return StreamSupport.stream(cell.getChildren().spliterator(), false)
-                .map(DomNode::getTextContent)
-                .map(text -> text.replace("\t", "").replace("\n", "").trim())
-                .filter(text -> text.contains(" Kbps"))
-                .findAny()
-                .map(KBPS_PATTERN::matcher)
-                .filter(Matcher::find)
-                .map(m -> m.group("number"))
-                .map(Integer::parseInt);
+    /**
+     * Checks the child text with tabs and newlines removed, leaving it in {@link #kbpsText}
+     */
+    private boolean containsKbps(CharSequence text, int start, int end) {
+        kbpsText.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\t' && c != '\n') {
+                kbpsText.append(c);
+            }
+        }
+        int from = trimStart(kbpsText, 0, kbpsText.length());
+        int to = trimEnd(kbpsText, from, kbpsText.length());
+        int index = kbpsText.indexOf(KBPS_SUFFIX, from);
+        return index >= 0 && index + KBPS_SUFFIX.length() <= to;
     }
 
-    private boolean isPlayerSection(HtmlTableDataCell cell) {
-        return cell.getAttribute("id").startsWith("play_");
+    private @Nullable Integer parseKbps() {
+        int from = trimStart(kbpsText, 0, kbpsText.length());
+        int to = trimEnd(kbpsText, from, kbpsText.length());
+        kbpsMatcher.reset(kbpsText).region(from, to);
+        if (kbpsMatcher.find()) {
+            return Integer.parseInt(kbpsText, kbpsMatcher.start("number"), kbpsMatcher.end("number"), 10);
+        }
+        return null;
+    }
+
+    private static @Nullable String trimmedOrNull(CharSequence text, int start, int end) {
+        int from = trimStart(text, start, end);
+        int to = trimEnd(text, from, end);
+        return from < to ? text.subSequence(from, to).toString() : null;
     }
 
-    private boolean isMiddleSection(HtmlTableDataCell cell) {
-        for (DomElement el : cell.getChildElements()) {
-            if (el instanceof HtmlHeading4 && el.getAttribute("class").contains("text-danger")) {
-                return true;
+    private static boolean startsWithTrimmed(CharSequence text, int start, int end, String prefix) {
+        int from = trimStart(text, start, end);
+        if (trimEnd(text, from, end) - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(from + i) != prefix.charAt(i)) {
+                return false;
             }
         }
-        return false;
+        return true;
+    }
+
+    // the same whitespace definition as String.trim()
+    private static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private boolean isPlayerSection(HtmlTableDataCell cell) {
+        return cell.getAttribute("id").startsWith("play_");
     }
 
     private boolean isRightSection(HtmlTableDataCell cell) {
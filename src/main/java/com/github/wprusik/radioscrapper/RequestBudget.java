@@ -0,0 +1,51 @@
+package com.github.wprusik.radioscrapper;
+
+import java.time.Duration;
+
+/**
+ * Token bucket limiting the number of requests sent per day. Requests that have already been sent are always
+ * accounted, so the bucket may go into debt, which delays following crawls.
+ */
+class RequestBudget {
+
+    private static final double MILLIS_PER_DAY = Duration.ofDays(1).toMillis();
+
+    private final long dailyLimit;
+    private double available;
+    private long updatedAt;
+
+    RequestBudget(long dailyLimit, double available, long updatedAt) {
+        this.dailyLimit = dailyLimit;
+        this.available = Math.min(available, dailyLimit);
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Returns how long to wait until given number of requests fits in the budget
+     */
+    long millisUntilAvailable(long requests, long now) {
+        refill(now);
+        double missing = Math.min(requests, dailyLimit) - available;
+        return missing > 0 ? (long) Math.ceil(missing * MILLIS_PER_DAY / dailyLimit) : 0;
+    }
+
+    void consume(long requests, long now) {
+        refill(now);
+        available -= requests;
+    }
+
+    double getAvailable() {
+        return available;
+    }
+
+    long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    private void refill(long now) {
+        if (now > updatedAt) {
+            available = Math.min(dailyLimit, available + (now - updatedAt) * dailyLimit / MILLIS_PER_DAY);
+            updatedAt = now;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.github.wprusik.radioscrapper;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.wprusik.radioscrapper.jfr.CrawlEvent;
+import com.github.wprusik.radioscrapper.jfr.PlaylistStoreEvent;
+import com.github.wprusik.radioscrapper.jfr.StorageSaveEvent;
+import com.github.wprusik.radioscrapper.model.CrawlSchedule;
 import com.github.wprusik.radioscrapper.model.RadioCategory;
 import com.github.wprusik.radioscrapper.model.RadioStation;
 import lombok.SneakyThrows;
@@ -13,11 +19,13 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 class StorageService {
 
     private static final String CONFIG_FILENAME = "data.json";
+    private static final String SCHEDULE_FILENAME = "schedule.json";
 
     private final String baseDirectory;
     private final String playlistDirectory;
@@ -33,9 +41,18 @@ class StorageService {
 
     @SneakyThrows
     void save(List<RadioCategory> radioCategories) {
-        createDirectoryIfNotExists(baseDirectory);
-        File configFile = createFileIfNotExists(baseDirectory + File.separator + CONFIG_FILENAME);
-        new ObjectMapper().writeValue(configFile, radioCategories);
+        StorageSaveEvent event = new StorageSaveEvent();
+        event.begin();
+        File configFile = new File(baseDirectory + File.separator + CONFIG_FILENAME);
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            createDirectoryIfNotExists(baseDirectory);
+            createFileIfNotExists(configFile.getPath());
+            new ObjectMapper().writeValue(configFile, radioCategories);
+            outcome = CrawlEvent.SUCCESS;
+        } finally {
+            event.finish(configFile.toURI().toString(), null, event.isEnabled() ? configFile.length() : 0, outcome);
+        }
     }
 
     List<RadioCategory> load() {
@@ -52,10 +69,69 @@ class StorageService {
         return new ArrayList<>();
     }
 
+    /**
+     * Reads radio stations one by one, without loading the whole configuration into memory
+     */
+    void forEachStation(Consumer<RadioStation> consumer) {
+        File configFile = new File(baseDirectory + File.separator + CONFIG_FILENAME);
+        if (!configFile.exists()) {
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        try (JsonParser parser = mapper.createParser(configFile)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && "stations".equals(field)) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            consumer.accept(mapper.readValue(parser, RadioStation.class));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SneakyThrows
+    void saveSchedule(CrawlSchedule schedule) {
+        createDirectoryIfNotExists(baseDirectory);
+        File scheduleFile = createFileIfNotExists(baseDirectory + File.separator + SCHEDULE_FILENAME);
+        new ObjectMapper().writeValue(scheduleFile, schedule);
+    }
+
+    Optional<CrawlSchedule> loadSchedule() {
+        File scheduleFile = new File(baseDirectory + File.separator + SCHEDULE_FILENAME);
+        if (scheduleFile.exists()) {
+            try {
+                return Optional.ofNullable(new ObjectMapper().readValue(scheduleFile, CrawlSchedule.class));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return Optional.empty();
+    }
+
     RadioCategory storePlaylists(RadioCategory category) {
-        createDirectoryIfNotExists(playlistDirectory);
-        List<RadioStation> storedStations = category.stations().stream().map(this::storeRadioStation).toList();
-        return category.toBuilder().stations(storedStations).build();
+        PlaylistStoreEvent event = new PlaylistStoreEvent();
+        event.begin();
+        long bytes = 0;
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            createDirectoryIfNotExists(playlistDirectory);
+            List<RadioStation> storedStations = category.stations().stream().map(this::storeRadioStation).toList();
+            bytes = event.isEnabled() ? storedStations.stream().mapToLong(s -> new File(s.playlistFile()).length()).sum() : 0;
+            outcome = storedStations.isEmpty() ? CrawlEvent.EMPTY : CrawlEvent.SUCCESS;
+            return category.toBuilder().stations(storedStations).build();
+        } finally {
+            event.finish(new File(playlistDirectory).toURI().toString(), category.name(), bytes, outcome);
+        }
     }
 
     private RadioStation storeRadioStation(RadioStation station) {
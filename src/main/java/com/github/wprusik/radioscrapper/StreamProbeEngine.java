@@ -0,0 +1,706 @@
+package com.github.wprusik.radioscrapper;
+
+import com.github.wprusik.radioscrapper.jfr.CrawlEvent;
+import com.github.wprusik.radioscrapper.jfr.StreamProbeEvent;
+import com.github.wprusik.radioscrapper.model.StreamProbe;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Probes radio streams concurrently, reading only response headers and a few KB of audio. Plain HTTP and ICY
+ * streams share a single selector thread with non-blocking channels, while HTTPS streams go through {@link HttpClient}.
+ * The number of probes in flight, including host name resolution, is capped, so {@link #probe(String)} blocks
+ * when the limit is reached. Returned futures always complete normally, failures are described by the result.
+ */
+@Slf4j
+class StreamProbeEngine implements AutoCloseable {
+
+    private static final Pattern STATUS_LINE_PATTERN = Pattern.compile("^(ICY|HTTP/\\d(\\.\\d)?) +(?<status>\\d{3}).*$");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+");
+    private static final Pattern AUDIO_INFO_BITRATE_PATTERN = Pattern.compile("(^|;)\\s*(ice-)?bitrate=(?<bitrate>\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_BITRATE_DIGITS = 6;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int READ_BUFFER_BYTES = 16 * 1024;
+    private static final long SELECT_TIMEOUT_MILLIS = 50;
+    private static final String USER_AGENT = "InternetRadioScrapper";
+    private static final String CLOSED = "Stream probe engine closed";
+
+    private final StreamProbeSettings settings;
+    private final Semaphore connections;
+    private final Selector selector;
+    private final ExecutorService resolver;
+    private final HttpClient httpClient;
+    private final Thread selectorThread;
+    private final Queue<Probe> connectQueue = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+
+    // used by the selector thread only
+    private final Set<Probe> activeProbes = new HashSet<>();
+    private final List<Probe> expiredProbes = new ArrayList<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+
+    StreamProbeEngine(StreamProbeSettings settings) {
+        this.settings = settings;
+        this.connections = new Semaphore(settings.maxConnections());
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.resolver = Executors.newFixedThreadPool(settings.resolverThreads(), r -> createDaemon(r, "stream-probe-resolver"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.connectTimeout())
+                // redirects are followed by the engine, so the limit is the same for all schemes
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.selectorThread = createDaemon(this::runSelector, "stream-probe-selector");
+        selectorThread.start();
+    }
+
+    /**
+     * Starts probing given stream, waiting for a free connection if the limit is reached
+     */
+    CompletableFuture<StreamProbe> probe(String url) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException(CLOSED);
+        }
+        connections.acquire();
+        StreamProbeEvent event = new StreamProbeEvent();
+        event.begin();
+        Probe probe = new Probe(url, event, System.nanoTime() + settings.timeout().toNanos());
+        probe.result.whenComplete((p, e) -> connections.release());
+        try {
+            probe.uri = new URI(url.trim());
+        } catch (Exception e) {
+            fail(probe, "Invalid URL");
+            return probe.result;
+        }
+        start(probe);
+        return probe.result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        resolver.shutdown();
+        selector.wakeup();
+        try {
+            resolver.awaitTermination(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+            selectorThread.join(settings.timeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();
+    }
+
+    /**
+     * Fails probes waiting for the selector thread, once it's stopped. Their channels aren't opened yet,
+     * so it's safe from any thread.
+     */
+    private void failQueued() {
+        Probe probe;
+        while ((probe = connectQueue.poll()) != null) {
+            fail(probe, CLOSED);
+        }
+    }
+
+    private void start(Probe probe) {
+        String scheme = probe.uri.getScheme() != null ? probe.uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (probe.uri.getHost() == null) {
+            fail(probe, "Invalid URL");
+        } else if ("http".equals(scheme) || "icy".equals(scheme)) {
+            resolve(probe);
+        } else if ("https".equals(scheme)) {
+            probeHttps(probe);
+        } else {
+            fail(probe, "Unsupported scheme " + scheme);
+        }
+    }
+
+    // ---- plain HTTP and ICY over non-blocking channels
+
+    /**
+     * Resolves host name, which is a blocking operation, within the probe deadline and hands the probe over
+     * to the selector thread. A lookup still running after the deadline only keeps its resolver thread,
+     * the probe is failed and its connection is released.
+     */
+    private void resolve(Probe probe) {
+        long remaining = probe.deadline - System.nanoTime();
+        if (closed || remaining <= 0) {
+            fail(probe, closed ? CLOSED : "Timeout");
+            return;
+        }
+        CompletableFuture<InetSocketAddress> lookup;
+        try {
+            // lookups queued past the deadline are skipped
+            lookup = CompletableFuture.supplyAsync(() -> probe.result.isDone() ? null
+                    : new InetSocketAddress(probe.uri.getHost(), getPort(probe.uri)), resolver);
+        } catch (RejectedExecutionException e) {
+            fail(probe, CLOSED);
+            return;
+        }
+        lookup.orTimeout(remaining, TimeUnit.NANOSECONDS).whenComplete((address, error) -> {
+            Throwable cause = error != null ? unwrap(error) : null;
+            if (cause instanceof TimeoutException) {
+                fail(probe, "Timeout");
+            } else if (cause != null) {
+                fail(probe, "Invalid URL");
+            } else if (address == null || address.isUnresolved()) {
+                fail(probe, "Unknown host " + probe.uri.getHost());
+            } else if (!probe.result.isDone()) {
+                probe.address = address;
+                connectQueue.add(probe);
+                selector.wakeup();
+                if (closed) {
+                    // the selector thread may be gone already
+                    failQueued();
+                }
+            }
+        });
+    }
+
+    private void runSelector() {
+        try {
+            while (!closed) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                Probe probe;
+                while ((probe = connectQueue.poll()) != null) {
+                    connect(probe);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle((Probe) key.attachment(), key);
+                }
+                expireProbes(System.nanoTime());
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("Stream probe selector failed", e);
+        } finally {
+            // the engine can't work without the selector, so probes already started and later ones are failed
+            closed = true;
+            new ArrayList<>(activeProbes).forEach(p -> fail(p, CLOSED));
+            failQueued();
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.warn("Unable to close selector", e);
+            }
+        }
+    }
+
+    private void connect(Probe probe) {
+        if (System.nanoTime() - probe.deadline >= 0) {
+            fail(probe, "Timeout");
+            return;
+        }
+        try {
+            SocketChannel channel = SocketChannel.open();
+            probe.channel = channel;
+            activeProbes.add(probe);
+            channel.configureBlocking(false);
+            probe.request = ByteBuffer.wrap(createRequest(probe.uri));
+            probe.connectStarted = System.nanoTime();
+            probe.connectDeadline = probe.connectStarted + settings.connectTimeout().toNanos();
+            if (channel.connect(probe.address)) {
+                probe.connected = true;
+                channel.register(selector, SelectionKey.OP_WRITE, probe);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            }
+        } catch (IOException e) {
+            fail(probe, describe(e));
+        } catch (RuntimeException e) {
+            failUnexpectedly(probe, e);
+        }
+    }
+
+    private void handle(Probe probe, SelectionKey key) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isConnectable()) {
+                if (!probe.channel.finishConnect()) {
+                    return;
+                }
+                probe.connected = true;
+                write(probe, key);
+            } else if (key.isWritable()) {
+                write(probe, key);
+            } else if (key.isReadable()) {
+                read(probe);
+            }
+        } catch (IOException e) {
+            fail(probe, describe(e));
+        } catch (RuntimeException e) {
+            failUnexpectedly(probe, e);
+        }
+    }
+
+    private void write(Probe probe, SelectionKey key) throws IOException {
+        probe.channel.write(probe.request);
+        if (probe.request.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            probe.request = null;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void read(Probe probe) throws IOException {
+        while (!probe.result.isDone() && probe.channel != null) {
+            readBuffer.clear();
+            int count = probe.channel.read(readBuffer);
+            if (count == 0) {
+                return;
+            }
+            if (count < 0) {
+                onEndOfStream(probe);
+                return;
+            }
+            if (probe.firstByteAt == 0) {
+                probe.firstByteAt = System.nanoTime();
+            }
+            readBuffer.flip();
+            if (probe.headers != null && !readHeaders(probe)) {
+                // the probe has been completed or redirected
+                return;
+            }
+            probe.bodyBytes += readBuffer.remaining();
+            if (probe.bodyBytes >= settings.audioBytes()) {
+                succeed(probe);
+            }
+        }
+    }
+
+    /**
+     * Collects response headers from {@link #readBuffer}, leaving the rest of it as body
+     * @return true if the headers are complete and the body should be read
+     */
+    private boolean readHeaders(Probe probe) {
+        StringBuilder headers = probe.headers;
+        while (readBuffer.hasRemaining()) {
+            // header values are ASCII, anything else is irrelevant here
+            char c = (char) (readBuffer.get() & 0xff);
+            headers.append(c);
+            int length = headers.length();
+            if (c == '\n' && length >= 2 && (headers.charAt(length - 2) == '\n'
+                    || (length >= 4 && headers.charAt(length - 2) == '\r' && headers.charAt(length - 3) == '\n'))) {
+                probe.headers = null;
+                return parseHeaders(probe, headers);
+            }
+            if (length >= MAX_HEADER_BYTES) {
+                fail(probe, "Response headers too large");
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean parseHeaders(Probe probe, CharSequence headers) {
+        String[] lines = headers.toString().split("\r?\n");
+        Matcher matcher = STATUS_LINE_PATTERN.matcher(lines[0].trim());
+        if (!matcher.matches()) {
+            fail(probe, "Invalid response");
+            return false;
+        }
+        probe.status = Integer.parseInt(matcher.group("status"));
+        for (int i = 1; i < lines.length; i++) {
+            int separator = lines[i].indexOf(':');
+            if (separator > 0) {
+                applyHeader(probe, lines[i].substring(0, separator).trim(), lines[i].substring(separator + 1).trim());
+            }
+        }
+        return onResponse(probe);
+    }
+
+    private void onEndOfStream(Probe probe) {
+        if (probe.headers != null) {
+            fail(probe, "Connection closed before response");
+        } else {
+            fail(probe, "Stream ended after " + probe.bodyBytes + " bytes");
+        }
+    }
+
+    private void expireProbes(long now) {
+        for (Probe probe : activeProbes) {
+            if ((!probe.connected && now - probe.connectDeadline >= 0) || now - probe.deadline >= 0) {
+                expiredProbes.add(probe);
+            }
+        }
+        for (Probe probe : expiredProbes) {
+            fail(probe, probe.connected ? "Timeout" : "Connect timeout");
+        }
+        expiredProbes.clear();
+    }
+
+    private byte[] createRequest(URI uri) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        String host = uri.getPort() >= 0 ? uri.getHost() + ":" + uri.getPort() : uri.getHost();
+        // HTTP/1.0 rules out chunked responses, metadata would be interleaved with audio
+        String request = "GET " + path + " HTTP/1.0\r\n"
+                + "Host: " + host + "\r\n"
+                + "User-Agent: " + USER_AGENT + "\r\n"
+                + "Accept: */*\r\n"
+                + "Icy-MetaData: 0\r\n"
+                + "Connection: close\r\n\r\n";
+        return request.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // ---- HTTPS
+
+    private void probeHttps(Probe probe) {
+        long remaining = probe.deadline - System.nanoTime();
+        if (remaining <= 0) {
+            fail(probe, "Timeout");
+            return;
+        }
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(probe.uri)
+                    .timeout(Duration.ofNanos(remaining))
+                    .header("User-Agent", USER_AGENT)
+                    .header("Icy-MetaData", "0")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            fail(probe, "Invalid URL");
+            return;
+        }
+        probe.connectStarted = System.nanoTime();
+        httpClient.sendAsync(request, info -> {
+                    probe.firstByteAt = System.nanoTime();
+                    probe.status = info.statusCode();
+                    info.headers().map().forEach((name, values) -> applyHeader(probe, name, values.get(0)));
+                    AudioSubscriber subscriber = new AudioSubscriber(isAudioResponse(probe) ? settings.audioBytes() : 0);
+                    probe.subscriber = subscriber;
+                    return subscriber;
+                })
+                .orTimeout(remaining, TimeUnit.NANOSECONDS)
+                .whenComplete((response, error) -> {
+                    try {
+                        completeHttps(probe, response, error);
+                    } catch (RuntimeException e) {
+                        failUnexpectedly(probe, e);
+                    }
+                });
+    }
+
+    private void completeHttps(Probe probe, @Nullable HttpResponse<Long> response, @Nullable Throwable error) {
+        if (error != null) {
+            AudioSubscriber subscriber = probe.subscriber;
+            if (subscriber != null) {
+                subscriber.cancel();
+            }
+            fail(probe, describeHttpsError(unwrap(error)));
+        } else if (onResponse(probe)) {
+            probe.bodyBytes = response.body();
+            if (probe.bodyBytes >= settings.audioBytes()) {
+                succeed(probe);
+            } else {
+                onEndOfStream(probe);
+            }
+        }
+    }
+
+    private static String describeHttpsError(Throwable error) {
+        if (error instanceof HttpConnectTimeoutException) {
+            return "Connect timeout";
+        }
+        if (error instanceof TimeoutException || error instanceof HttpTimeoutException) {
+            return "Timeout";
+        }
+        return describe(error);
+    }
+
+    /**
+     * Counts body bytes and cancels the download once the limit is reached
+     */
+    private static class AudioSubscriber implements HttpResponse.BodySubscriber<Long> {
+        private final long limit;
+        private final CompletableFuture<Long> body = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        private long count = 0;
+
+        AudioSubscriber(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (limit <= 0) {
+                cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (ByteBuffer item : items) {
+                count += item.remaining();
+            }
+            if (count >= limit) {
+                cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(count);
+        }
+
+        void cancel() {
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+            body.complete(count);
+        }
+    }
+
+    // ---- common
+
+    private void applyHeader(Probe probe, String name, String value) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "content-type" -> probe.contentType = value;
+            case "location" -> probe.location = value;
+            case "icy-br" -> {
+                // sometimes repeated, e.g. "128, 128"
+                Matcher matcher = NUMBER_PATTERN.matcher(value);
+                if (matcher.find()) {
+                    probe.bitrate = parseBitrate(matcher.group());
+                }
+            }
+            case "ice-audio-info" -> {
+                Matcher matcher = AUDIO_INFO_BITRATE_PATTERN.matcher(value);
+                if (probe.bitrate == null && matcher.find()) {
+                    probe.bitrate = parseBitrate(matcher.group("bitrate"));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Headers come from remote servers, so anything out of range is ignored instead of being parsed
+     */
+    private static @Nullable Integer parseBitrate(String digits) {
+        return digits.length() <= MAX_BITRATE_DIGITS ? Integer.valueOf(digits) : null;
+    }
+
+    /**
+     * Follows redirects and fails responses which are not audio streams
+     * @return true if the body should be read
+     */
+    private boolean onResponse(Probe probe) {
+        if (isRedirect(probe.status) && probe.location != null) {
+            redirect(probe);
+            return false;
+        }
+        if (!isAudioResponse(probe)) {
+            fail(probe, probe.status != 200 ? "HTTP " + probe.status : "Not an audio stream");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isAudioResponse(Probe probe) {
+        return probe.status == 200 && (probe.contentType == null || !probe.contentType.toLowerCase(Locale.ROOT).startsWith("text/html"));
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
+    private void redirect(Probe probe) {
+        String location = probe.location;
+        closeChannel(probe);
+        if (probe.redirects >= settings.maxRedirects()) {
+            fail(probe, "Too many redirects");
+            return;
+        }
+        URI target;
+        try {
+            target = probe.uri.resolve(location.trim());
+        } catch (IllegalArgumentException e) {
+            fail(probe, "Invalid redirect location");
+            return;
+        }
+        probe.redirect(target);
+        start(probe);
+    }
+
+    private void succeed(Probe probe) {
+        complete(probe, true, null);
+    }
+
+    private void fail(Probe probe, String error) {
+        complete(probe, false, error);
+    }
+
+    /**
+     * Fails only the given probe, so an unexpected response can't stop the selector thread
+     * and leave other probes waiting forever
+     */
+    private void failUnexpectedly(Probe probe, RuntimeException e) {
+        log.warn("Unexpected error while probing stream {}", probe.url, e);
+        fail(probe, "Unexpected error: " + describe(e));
+    }
+
+    private void complete(Probe probe, boolean alive, @Nullable String error) {
+        if (probe.result.isDone()) {
+            return;
+        }
+        closeChannel(probe);
+        Long latency = probe.firstByteAt != 0 ? TimeUnit.NANOSECONDS.toMillis(probe.firstByteAt - probe.connectStarted) : null;
+        StreamProbe result = StreamProbe.builder()
+                .alive(alive)
+                .streamUrl(probe.url)
+                .latencyMillis(latency)
+                .contentType(probe.contentType)
+                .bitrate(probe.bitrate)
+                .error(error)
+                .probedAt(System.currentTimeMillis())
+                .build();
+        probe.event.finish(probe.url, null, probe.bodyBytes, alive ? CrawlEvent.SUCCESS : CrawlEvent.FAILURE);
+        probe.result.complete(result);
+    }
+
+    /**
+     * Closes the connection of a plain HTTP probe, which is only done by the selector thread
+     */
+    private void closeChannel(Probe probe) {
+        SocketChannel channel = probe.channel;
+        if (channel == null) {
+            return;
+        }
+        probe.channel = null;
+        activeProbes.remove(probe);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Unable to close stream connection", e);
+        }
+    }
+
+    private static int getPort(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static String describe(Throwable error) {
+        // HttpClient wraps the actual error, often without a message of its own
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e.getMessage() != null) {
+                return e.getMessage();
+            }
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    private static Thread createDaemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * State of a single stream probe, reset on every redirect
+     */
+    private static class Probe {
+        private final String url;
+        private final StreamProbeEvent event;
+        private final long deadline;
+        private final CompletableFuture<StreamProbe> result = new CompletableFuture<>();
+        private int redirects = 0;
+
+        private URI uri;
+        private InetSocketAddress address;
+        private SocketChannel channel;
+        private ByteBuffer request;
+        private StringBuilder headers = new StringBuilder(512);
+        private volatile AudioSubscriber subscriber;
+        private boolean connected;
+        private long connectStarted;
+        private long connectDeadline;
+        private long firstByteAt;
+        private long bodyBytes;
+        private int status;
+        private String contentType;
+        private Integer bitrate;
+        private String location;
+
+        Probe(String url, StreamProbeEvent event, long deadline) {
+            this.url = url;
+            this.event = event;
+            this.deadline = deadline;
+        }
+
+        void redirect(URI target) {
+            redirects++;
+            uri = target;
+            address = null;
+            request = null;
+            headers = new StringBuilder(512);
+            subscriber = null;
+            connected = false;
+            firstByteAt = 0;
+            bodyBytes = 0;
+            status = 0;
+            contentType = null;
+            bitrate = null;
+            location = null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.wprusik.radioscrapper;
+
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * Settings of stream probing
+ * @param maxConnections - maximal number of streams probed at the same time, including host name resolution
+ * @param connectTimeout - maximal time to establish a connection
+ * @param timeout - maximal time of the whole probe of a single stream, including redirects
+ * @param audioBytes - number of audio bytes read after response headers
+ * @param maxRedirects - maximal number of followed redirects
+ * @param resolverThreads - number of threads resolving host names, which is a blocking operation
+ */
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record StreamProbeSettings(int maxConnections, Duration connectTimeout, Duration timeout, int audioBytes,
+                                  int maxRedirects, int resolverThreads) {
+
+    public static final StreamProbeSettings DEFAULT = new StreamProbeSettings(
+            512, Duration.ofSeconds(3), Duration.ofSeconds(8), 4096, 3, 32);
+
+    public StreamProbeSettings {
+        if (maxConnections < 1 || audioBytes < 1 || resolverThreads < 1 || maxRedirects < 0) {
+            throw new IllegalArgumentException("Connection limit, audio bytes and resolver threads must be positive");
+        }
+        if (connectTimeout.compareTo(timeout) > 0) {
+            throw new IllegalArgumentException("Connect timeout can't exceed probe timeout");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.wprusik.radioscrapper;
+
+import com.github.wprusik.radioscrapper.model.RadioCategory;
+import com.github.wprusik.radioscrapper.model.RadioStation;
+import com.github.wprusik.radioscrapper.model.StreamProbe;
+import com.github.wprusik.radioscrapper.utils.PlaylistParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes streams of all saved radio stations and stores the results in the configuration. Each stream URL is
+ * probed once, even if it appears in many playlists. A station is alive if any stream of its playlist is,
+ * and the fastest alive stream is recorded.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class StreamProber {
+
+    private static final String NO_STREAMS = "No streams in playlist";
+    private static final String NOT_FINISHED = "Probe not finished";
+    private static final long AWAIT_MARGIN_MILLIS = 5_000;
+
+    private final StorageService storageService;
+    private final StreamProbeSettings settings;
+
+    List<RadioCategory> probeAll() throws InterruptedException {
+        List<RadioCategory> categories = storageService.load();
+        Map<String, List<String>> playlists = new HashMap<>();
+        for (RadioCategory category : categories) {
+            for (RadioStation station : category.stations()) {
+                if (station.playlistFile() != null) {
+                    playlists.computeIfAbsent(station.playlistFile(), this::readStreamUrls);
+                }
+            }
+        }
+        Set<String> urls = new LinkedHashSet<>();
+        playlists.values().forEach(urls::addAll);
+
+        long start = System.currentTimeMillis();
+        Map<String, StreamProbe> probes = probe(urls);
+        log.info("Probed {} streams in {} ms", probes.size(), System.currentTimeMillis() - start);
+
+        List<RadioCategory> result = new ArrayList<>(categories.size());
+        for (RadioCategory category : categories) {
+            List<RadioStation> stations = category.stations().stream()
+                    .map(s -> s.toBuilder().probe(selectProbe(playlists.get(s.playlistFile()), probes)).build())
+                    .toList();
+            result.add(category.toBuilder().stations(stations).build());
+        }
+        storageService.save(result);
+        return result;
+    }
+
+    private Map<String, StreamProbe> probe(Collection<String> urls) throws InterruptedException {
+        Map<String, StreamProbe> probes = new ConcurrentHashMap<>(urls.size());
+        CountDownLatch done = new CountDownLatch(urls.size());
+        try (StreamProbeEngine engine = new StreamProbeEngine(settings)) {
+            for (String url : urls) {
+                engine.probe(url).whenComplete((probe, e) -> {
+                    if (probe != null) {
+                        probes.put(url, probe);
+                    }
+                    done.countDown();
+                });
+            }
+            // submitting blocks while the connection limit is reached, so only the last probes are still running,
+            // each of them within the probe timeout
+            if (!done.await(settings.timeout().toMillis() + AWAIT_MARGIN_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("{} stream probes not finished in time", done.getCount());
+            }
+        }
+        return probes;
+    }
+
+    private StreamProbe selectProbe(@Nullable List<String> urls, Map<String, StreamProbe> probes) {
+        if (urls == null || urls.isEmpty()) {
+            return StreamProbe.builder().alive(false).error(NO_STREAMS).probedAt(System.currentTimeMillis()).build();
+        }
+        StreamProbe fastest = urls.stream()
+                .map(probes::get)
+                .filter(p -> p != null && p.alive())
+                .min(Comparator.comparing(StreamProbe::latencyMillis, Comparator.nullsLast(Comparator.naturalOrder())))
+                .orElse(null);
+        if (fastest != null) {
+            return fastest;
+        }
+        StreamProbe first = probes.get(urls.get(0));
+        return first != null ? first : StreamProbe.builder()
+                .alive(false)
+                .streamUrl(urls.get(0))
+                .error(NOT_FINISHED)
+                .probedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private List<String> readStreamUrls(String playlistFile) {
+        try {
+            return PlaylistParser.readStreamUrls(Path.of(playlistFile));
+        } catch (UncheckedIOException e) {
+            log.warn("Unable to read playlist {}", playlistFile, e);
+            return List.of();
+        }
+    }
+}
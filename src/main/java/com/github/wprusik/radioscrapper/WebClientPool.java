@@ -0,0 +1,180 @@
+package com.github.wprusik.radioscrapper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.htmlunit.Page;
+import org.htmlunit.WebClient;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A small pool of web clients, each of them recycled after a number of requests or received bytes,
+ * so memory used by a long crawl doesn't grow with the number of visited pages.
+ * Pages obtained from a recycled client remain readable, as JavaScript is disabled.
+ * A client held by a request that hangs for too long, e.g. one abandoned after a timeout, is replaced,
+ * so hung requests can't exhaust the pool.
+ */
+@Slf4j
+class WebClientPool implements AutoCloseable {
+
+    private static final long WAIT_MILLIS = 1_000;
+    private static final long ABANDONED_REQUEST_MILLIS = 30_000;
+    private static final long BORROW_TIMEOUT_MILLIS = 60_000;
+
+    private final Supplier<WebClient> webClientFactory;
+    private final WebClientPoolSettings settings;
+    private final BlockingQueue<PooledClient> idleClients;
+    private final List<PooledClient> allClients = new ArrayList<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private boolean closed = false;
+
+    WebClientPool(Supplier<WebClient> webClientFactory, WebClientPoolSettings settings) {
+        this.webClientFactory = webClientFactory;
+        this.settings = settings;
+        this.idleClients = new ArrayBlockingQueue<>(settings.size());
+    }
+
+    <P extends Page> P getPage(String url) throws IOException {
+        PooledClient client = borrow();
+        try {
+            return client.webClient.getPage(url);
+        } finally {
+            release(client);
+        }
+    }
+
+    <P extends Page> P getPage(URL url) throws IOException {
+        PooledClient client = borrow();
+        try {
+            return client.webClient.getPage(url);
+        } finally {
+            release(client);
+        }
+    }
+
+    /**
+     * Returns the number of requests sent by all clients, including recycled ones
+     */
+    long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        allClients.forEach(c -> c.webClient.close());
+        allClients.clear();
+        idleClients.clear();
+    }
+
+    private PooledClient borrow() throws IOException {
+        PooledClient client = idleClients.poll();
+        if (client == null) {
+            client = createIfAllowed();
+        }
+        long waitUntil = System.currentTimeMillis() + BORROW_TIMEOUT_MILLIS;
+        while (client == null) {
+            try {
+                client = idleClients.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a web client", e);
+            }
+            if (client == null) {
+                client = replaceAbandoned();
+            }
+            if (client == null && System.currentTimeMillis() > waitUntil) {
+                throw new IOException("Timed out waiting for a web client");
+            }
+        }
+        client.requestsBefore = client.connection.getRequestCount();
+        client.borrowedAt = System.currentTimeMillis();
+        return client;
+    }
+
+    /**
+     * Gives up the client held for the longest time, if it exceeds the limit, and returns its replacement
+     */
+    private synchronized PooledClient replaceAbandoned() {
+        if (closed) {
+            throw new IllegalStateException("Web client pool is closed");
+        }
+        long now = System.currentTimeMillis();
+        PooledClient abandoned = allClients.stream()
+                .filter(c -> c.borrowedAt > 0 && now - c.borrowedAt > ABANDONED_REQUEST_MILLIS)
+                .min(Comparator.comparingLong(c -> c.borrowedAt))
+                .orElse(null);
+        if (abandoned == null) {
+            return null;
+        }
+        log.warn("Replacing web client held by a request for {} ms", now - abandoned.borrowedAt);
+        // closed by the thread holding it, once the request returns
+        abandoned.abandoned = true;
+        allClients.remove(abandoned);
+        PooledClient replacement = new PooledClient(webClientFactory.get());
+        allClients.add(replacement);
+        return replacement;
+    }
+
+    private synchronized PooledClient createIfAllowed() {
+        if (closed) {
+            throw new IllegalStateException("Web client pool is closed");
+        }
+        if (allClients.size() >= settings.size()) {
+            return null;
+        }
+        PooledClient client = new PooledClient(webClientFactory.get());
+        allClients.add(client);
+        return client;
+    }
+
+    private synchronized void release(PooledClient client) {
+        requestCount.addAndGet(client.connection.getRequestCount() - client.requestsBefore);
+        client.borrowedAt = 0;
+        if (client.abandoned) {
+            client.webClient.close();
+        } else if (client.connection.getRequestCount() >= settings.maxRequestsPerClient()
+                || client.connection.getByteCount() >= settings.maxBytesPerClient()) {
+            recycle(client);
+        } else if (!isClosed()) {
+            idleClients.add(client);
+        }
+    }
+
+    private synchronized void recycle(PooledClient client) {
+        log.debug("Recycling web client after {} requests and {} bytes", client.connection.getRequestCount(), client.connection.getByteCount());
+        allClients.remove(client);
+        client.webClient.close();
+        // replaced at once, as other threads may be waiting for an idle client
+        if (!closed) {
+            PooledClient replacement = new PooledClient(webClientFactory.get());
+            allClients.add(replacement);
+            idleClients.add(replacement);
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private static class PooledClient {
+        private final WebClient webClient;
+        private final CountingWebConnection connection;
+        private long requestsBefore;
+        private volatile long borrowedAt;
+        private volatile boolean abandoned;
+
+        PooledClient(WebClient webClient) {
+            this.webClient = webClient;
+            this.connection = CountingWebConnection.install(webClient);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.wprusik.radioscrapper;
+
+import lombok.Builder;
+
+/**
+ * Settings of web clients used during crawl. Clients are closed and replaced with new ones after serving
+ * given number of requests or bytes, which releases their cookies, cache and windows.
+ * @param size - maximal number of clients in use at the same time
+ * @param maxRequestsPerClient - number of requests after which a client is recycled
+ * @param maxBytesPerClient - number of received bytes after which a client is recycled
+ * @param cacheSize - maximal number of cached responses per client
+ * @param historySize - maximal number of history entries per window, pages themselves are never cached
+ */
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record WebClientPoolSettings(int size, long maxRequestsPerClient, long maxBytesPerClient, int cacheSize, int historySize) {
+
+    public static final WebClientPoolSettings DEFAULT = new WebClientPoolSettings(2, 1_000, 64L * 1024 * 1024, 10, 1);
+
+    public WebClientPoolSettings {
+        if (size < 1 || maxRequestsPerClient < 1 || maxBytesPerClient < 1) {
+            throw new IllegalArgumentException("Pool size and recycling limits must be positive");
+        }
+        if (cacheSize < 0 || historySize < 0) {
+            throw new IllegalArgumentException("Cache and history sizes can't be negative");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "CategoryFetch")
+@Label("Category Fetch")
+@Description("Fetching and parsing all pages of a radio category")
+public class CategoryFetchEvent extends CrawlEvent {
+}
@@ -0,0 +1,46 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Base of Java Flight Recorder events emitted during crawl. Stack traces are disabled, so the events are cheap
+ * enough to stay enabled in production.
+ */
+@Category({"Internet Radio Scrapper", "Crawl"})
+@StackTrace(false)
+public abstract class CrawlEvent extends Event {
+
+    public static final String NAME_PREFIX = "com.github.wprusik.radioscrapper.";
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String EMPTY = "EMPTY";
+    public static final String INCOMPLETE = "INCOMPLETE";
+    public static final String FAILURE = "FAILURE";
+
+    @Label("URL")
+    String url;
+
+    @Label("Category")
+    String category;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    String outcome = FAILURE;
+
+    /**
+     * Ends the event and commits it if it's enabled and exceeds the threshold
+     */
+    public void finish(String url, String category, long bytes, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.url = url;
+            this.category = category;
+            this.bytes = bytes;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
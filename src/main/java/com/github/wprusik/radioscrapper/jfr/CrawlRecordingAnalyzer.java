@@ -0,0 +1,144 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Summarizes crawl events from a flight recording: latency of each crawl phase and the slowest playlist hosts.
+ * Phases are nested (a category fetch includes its pages and stations, a station includes its download),
+ * so their total times overlap.
+ * <p>
+ * Usage: {@code CrawlRecordingAnalyzer <recording.jfr> [number of hosts]}
+ */
+public class CrawlRecordingAnalyzer {
+
+    private static final int DEFAULT_HOST_LIMIT = 20;
+
+    private final Map<String, Stats> phases = new TreeMap<>();
+    private final Map<String, Stats> hosts = new HashMap<>();
+
+    public static void main(String... args) {
+        if (args.length < 1) {
+            System.err.println("Usage: CrawlRecordingAnalyzer <recording.jfr> [number of hosts]");
+            System.exit(1);
+        }
+        int hostLimit = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HOST_LIMIT;
+        CrawlRecordingAnalyzer analyzer = new CrawlRecordingAnalyzer();
+        analyzer.read(Path.of(args[0]));
+        analyzer.print(System.out, hostLimit);
+    }
+
+    public void read(Path recording) {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                if (name.startsWith(CrawlEvent.NAME_PREFIX)) {
+                    process(event, name.substring(CrawlEvent.NAME_PREFIX.length()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void print(PrintStream out, int hostLimit) {
+        out.println("Phase latency (ms):");
+        out.printf("%-18s %8s %8s %10s %8s %8s %8s %10s %12s%n", "phase", "count", "failed", "total", "mean", "p50", "p95", "max", "bytes");
+        phases.forEach((phase, stats) -> out.printf("%-18s %8d %8d %10.1f %8.1f %8.1f %8.1f %10.1f %12d%n",
+                phase, stats.count(), stats.failed, toMillis(stats.total), stats.mean(), stats.percentile(0.5),
+                stats.percentile(0.95), stats.percentile(1), stats.bytes));
+
+        out.println();
+        out.println("Slowest playlist hosts (ms):");
+        out.printf("%-40s %8s %8s %8s %8s %8s%n", "host", "count", "failed", "mean", "p95", "max");
+        hosts.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, Stats> e) -> e.getValue().mean()).reversed())
+                .limit(hostLimit)
+                .forEach(e -> out.printf("%-40s %8d %8d %8.1f %8.1f %8.1f%n", e.getKey(), e.getValue().count(),
+                        e.getValue().failed, e.getValue().mean(), e.getValue().percentile(0.95), e.getValue().percentile(1)));
+    }
+
+    private void process(RecordedEvent event, String phase) {
+        Duration duration = event.getDuration();
+        boolean failed = CrawlEvent.FAILURE.equals(event.getString("outcome"));
+        long bytes = event.getLong("bytes");
+        phases.computeIfAbsent(phase, p -> new Stats()).add(duration, bytes, failed);
+
+        String host = "Download".equals(phase) ? extractHost(event.getString("url")) : null;
+        if (host != null) {
+            hosts.computeIfAbsent(host, h -> new Stats()).add(duration, bytes, failed);
+        }
+    }
+
+    private String extractHost(String url) {
+        if (url == null) {
+            return null;
+        }
+        URI uri = parseURI(url);
+        if (uri == null) {
+            return null;
+        }
+        // playlist generator links carry the stream host in the query
+        String query = uri.getQuery();
+        URI streamUri = query != null && query.startsWith("u=") ? parseURI(query.substring(2)) : null;
+        return streamUri != null && streamUri.getHost() != null ? streamUri.getHost() : uri.getHost();
+    }
+
+    private URI parseURI(String uri) {
+        try {
+            return URI.create(uri);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class Stats {
+        private final List<Long> durations = new ArrayList<>();
+        private long total;
+        private long bytes;
+        private int failed;
+        private boolean sorted = true;
+
+        void add(Duration duration, long bytes, boolean failed) {
+            long nanos = duration.toNanos();
+            durations.add(nanos);
+            this.total += nanos;
+            this.bytes += bytes;
+            this.failed += failed ? 1 : 0;
+            this.sorted = false;
+        }
+
+        int count() {
+            return durations.size();
+        }
+
+        double mean() {
+            return durations.isEmpty() ? 0 : toMillis(total) / durations.size();
+        }
+
+        double percentile(double p) {
+            if (durations.isEmpty()) {
+                return 0;
+            }
+            if (!sorted) {
+                Collections.sort(durations);
+                sorted = true;
+            }
+            int index = (int) Math.ceil(p * durations.size()) - 1;
+            return toMillis(durations.get(Math.max(0, Math.min(index, durations.size() - 1))));
+        }
+    }
+}
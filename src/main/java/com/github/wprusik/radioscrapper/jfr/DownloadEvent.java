@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "Download")
+@Label("Download")
+@Description("Downloading a playlist file")
+public class DownloadEvent extends CrawlEvent {
+}
@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "PaginationFetch")
+@Label("Pagination Fetch")
+@Description("Fetching following pages of a radio category")
+public class PaginationFetchEvent extends CrawlEvent {
+}
@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "PlaylistStore")
+@Label("Playlist Store")
+@Description("Hashing and moving playlist files of a radio category")
+public class PlaylistStoreEvent extends CrawlEvent {
+}
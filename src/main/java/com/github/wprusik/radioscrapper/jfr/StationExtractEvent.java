@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "StationExtract")
+@Label("Station Extract")
+@Description("Extracting a radio station from a table row, including playlist download")
+public class StationExtractEvent extends CrawlEvent {
+}
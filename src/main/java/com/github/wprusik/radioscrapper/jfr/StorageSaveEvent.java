@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "StorageSave")
+@Label("Storage Save")
+@Description("Serializing configuration to JSON file")
+public class StorageSaveEvent extends CrawlEvent {
+}
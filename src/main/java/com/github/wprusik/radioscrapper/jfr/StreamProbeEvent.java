@@ -0,0 +1,11 @@
+package com.github.wprusik.radioscrapper.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CrawlEvent.NAME_PREFIX + "StreamProbe")
+@Label("Stream Probe")
+@Description("Probing a radio stream for liveness and bitrate")
+public class StreamProbeEvent extends CrawlEvent {
+}
@@ -0,0 +1,17 @@
+package com.github.wprusik.radioscrapper.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+
+/**
+ * Refresh state of a single radio category in continuous crawl mode
+ * @param intervalMillis - current refresh interval, adapted to how often the category changes
+ * @param lastCrawl - epoch millis of the last crawl, 0 if never crawled
+ * @param nextCrawl - epoch millis when the category is due
+ * @param requestCount - number of requests sent during the last crawl, used as cost estimate
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record CategorySchedule(String name, String uri, long intervalMillis, long lastCrawl, long nextCrawl,
+                               int crawlCount, int changeCount, long requestCount) {
+}
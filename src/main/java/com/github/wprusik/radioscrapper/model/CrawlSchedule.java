@@ -0,0 +1,16 @@
+package com.github.wprusik.radioscrapper.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Persisted state of continuous crawl mode
+ * @param availableRequests - requests left in the global budget at {@code updatedAt}
+ * @param updatedAt - epoch millis of the last budget update
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record CrawlSchedule(List<CategorySchedule> categories, double availableRequests, long updatedAt) {
+}
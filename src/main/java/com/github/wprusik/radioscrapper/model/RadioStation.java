@@ -12,16 +12,22 @@ import java.util.UUID;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Builder(builderClassName = "Builder", toBuilder = true)
-public record RadioStation(UUID uuid, String name, @Nullable String url, List<String> genres, Integer kbps, String playlistFile) {
+public record RadioStation(UUID uuid, String name, @Nullable String url, List<String> genres, Integer kbps, String playlistFile,
+                           @Nullable StreamProbe probe) {
+
+    public RadioStation(String name, @Nullable String url, List<String> genres, Integer kbps, String playlistFile) {
+        this(name, url, genres, kbps, playlistFile, null);
+    }
 
     @JsonCreator
     public RadioStation(@JsonProperty("name") String name,
                         @JsonProperty("url") @Nullable String url,
                         @JsonProperty("genres") List<String> genres,
                         @JsonProperty("kbps") Integer kbps,
-                        @JsonProperty("playlistFile") String playlistFile) {
+                        @JsonProperty("playlistFile") String playlistFile,
+                        @JsonProperty("probe") @Nullable StreamProbe probe) {
 
-        this(UUIDGenerator.create(name, url, kbps), name, url, genres, kbps, playlistFile);
+        this(UUIDGenerator.create(name, url, kbps), name, url, genres, kbps, playlistFile, probe);
     }
 
 }
@@ -0,0 +1,24 @@
+package com.github.wprusik.radioscrapper.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Result of probing a radio stream
+ * @param alive - whether the stream responded with success and sent audio data
+ * @param streamUrl - probed URL as listed in the playlist; for a station, its fastest alive stream if there is any,
+ *                  otherwise the first stream of its playlist
+ * @param latencyMillis - time from connecting to the first response byte; if the stream redirects, it's measured
+ *                      for the last connection only, without earlier redirects
+ * @param contentType - content type declared by the stream
+ * @param bitrate - bitrate in kbps advertised by the stream in ICY headers
+ * @param error - reason why the stream is not alive
+ * @param probedAt - epoch millis of the probe
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record StreamProbe(boolean alive, @Nullable String streamUrl, @Nullable Long latencyMillis, @Nullable String contentType,
+                          @Nullable Integer bitrate, @Nullable String error, long probedAt) {
+}
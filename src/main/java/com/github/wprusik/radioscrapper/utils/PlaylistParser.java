@@ -0,0 +1,45 @@
+package com.github.wprusik.radioscrapper.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads stream URLs from M3U and PLS playlist files
+ */
+public class PlaylistParser {
+
+    private static final Pattern PLS_FILE_PATTERN = Pattern.compile("^File\\d+=(?<url>.+)$", Pattern.CASE_INSENSITIVE);
+
+    public static List<String> readStreamUrls(Path playlist) {
+        List<String> urls = new ArrayList<>();
+        // playlists come from many sources with various encodings, URLs themselves are ASCII anyway
+        try (BufferedReader reader = Files.newBufferedReader(playlist, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String url = parseLine(line.trim());
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return urls;
+    }
+
+    private static String parseLine(String line) {
+        Matcher matcher = PLS_FILE_PATTERN.matcher(line);
+        if (matcher.matches()) {
+            line = matcher.group("url").trim();
+        }
+        return line.contains("://") && !line.startsWith("#") ? line : null;
+    }
+}
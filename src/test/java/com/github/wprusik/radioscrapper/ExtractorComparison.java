@@ -0,0 +1,162 @@
+package com.github.wprusik.radioscrapper;
+
+import com.github.wprusik.radioscrapper.model.RadioStation;
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.html.HtmlTable;
+import org.htmlunit.html.HtmlTableRow;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Runs {@link RadioStationExtractor} and {@link LegacyRadioStationExtractor} on recorded table rows, checks that
+ * both extract the same stations and compares bytes allocated and time per row.
+ * <p>
+ * Usage: {@code ExtractorComparison [iterations]}. Rows come from {@code fixtures/station-rows-*.html} and playlists
+ * are served by a mock connection. Allocation is measured on rows without playlist links, so downloads don't count.
+ * Exits with status 1 if any row differs or the new extractor doesn't allocate less per row.
+ */
+public class ExtractorComparison {
+
+    private static final String BASE_URL = "http://fixture";
+    private static final List<String> FIXTURES = List.of("station-rows-edge-cases.html", "station-rows-standin.html");
+    private static final String ALLOCATION_FIXTURE = "station-rows-standin.html";
+    private static final String NO_PLAYLISTS_PATH = "/no-playlists";
+    private static final String PLAYLIST = "#EXTM3U\nhttp://stream.example.com/stream\n";
+    private static final List<String> GENRES = BaseExtractor.sortGenres(List.of(
+            "rock", "classic rock", "pop", "jazz", "genre1", "genre2", "genre3", "genre10"));
+    private static final int DEFAULT_ITERATIONS = 50;
+    private static final int WARM_UP_ROUNDS = 2;
+
+    public static void main(String... args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        MockWebConnection connection = new MockWebConnection();
+        connection.setDefaultResponse(PLAYLIST, 200, "OK", "audio/x-mpegurl");
+        for (String fixture : FIXTURES) {
+            connection.setResponse(createURL("/" + fixture), readFixture(fixture));
+        }
+        connection.setResponse(createURL(NO_PLAYLISTS_PATH), readFixture(ALLOCATION_FIXTURE).replace("M3U Playlist File", "none"));
+
+        try (WebClientPool webClients = new WebClientPool(() -> createWebClient(connection), WebClientPoolSettings.DEFAULT)) {
+            long differences = 0;
+            long rowCount = 0;
+            for (String fixture : FIXTURES) {
+                List<HtmlTableRow> rows = getRows(webClients, "/" + fixture);
+                LegacyRadioStationExtractor legacy = new LegacyRadioStationExtractor(webClients, BASE_URL, fixture, GENRES);
+                RadioStationExtractor current = new RadioStationExtractor(webClients, BASE_URL, fixture, GENRES);
+                for (HtmlTableRow row : rows) {
+                    String expected = describe(legacy.extractRadioInfo(row).orElse(null));
+                    String actual = describe(current.extractRadioInfo(row));
+                    if (!expected.equals(actual)) {
+                        differences++;
+                        System.out.printf("Difference in %s:%n  legacy:  %s%n  current: %s%n", fixture, expected, actual);
+                    }
+                }
+                rowCount += rows.size();
+            }
+            System.out.printf("Compared %d rows, %d differences%n", rowCount, differences);
+
+            List<HtmlTableRow> rows = getRows(webClients, NO_PLAYLISTS_PATH);
+            LegacyRadioStationExtractor legacy = new LegacyRadioStationExtractor(webClients, BASE_URL, NO_PLAYLISTS_PATH, GENRES);
+            RadioStationExtractor current = new RadioStationExtractor(webClients, BASE_URL, NO_PLAYLISTS_PATH, GENRES);
+            Measurement legacyResult = null;
+            Measurement currentResult = null;
+            for (int round = 0; round <= WARM_UP_ROUNDS; round++) {
+                legacyResult = measure(rows, iterations, row -> legacy.extractRadioInfo(row));
+                currentResult = measure(rows, iterations, current::extractRadioInfo);
+            }
+            System.out.printf("%10s %12s %12s%n", "", "bytes/row", "us/row");
+            System.out.printf("%10s %s%n%10s %s%n", "legacy", legacyResult, "current", currentResult);
+
+            if (differences > 0 || currentResult.bytesPerRow() >= legacyResult.bytesPerRow()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Measurement measure(List<HtmlTableRow> rows, int iterations, RowExtractor extractor) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (HtmlTableRow row : rows) {
+                extractor.extract(row);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long count = (long) rows.size() * iterations;
+        return new Measurement((threads.getCurrentThreadAllocatedBytes() - bytesBefore) / count, elapsed / 1000.0 / count);
+    }
+
+    private static List<HtmlTableRow> getRows(WebClientPool webClients, String path) {
+        try {
+            HtmlPage page = webClients.getPage(BASE_URL + path);
+            HtmlTable table = (HtmlTable) page.getBody().getElementsByAttribute("table", "class", "table table-striped").get(0);
+            return table.getRows();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String describe(@Nullable RadioStation station) {
+        if (station == null) {
+            return "null";
+        }
+        try {
+            String playlist = Files.readString(Path.of(station.playlistFile()));
+            return String.join(" | ", station.name(), station.url(), String.valueOf(station.genres()),
+                    String.valueOf(station.kbps()), playlist.trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static WebClient createWebClient(MockWebConnection connection) {
+        WebClient client = new WebClient();
+        client.getOptions().setJavaScriptEnabled(false);
+        client.getOptions().setCssEnabled(false);
+        client.setWebConnection(connection);
+        return client;
+    }
+
+    private static String readFixture(String name) {
+        try (InputStream is = ExtractorComparison.class.getResourceAsStream("/fixtures/" + name)) {
+            if (is == null) {
+                throw new IllegalStateException("Fixture not found: " + name);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static URL createURL(String path) {
+        try {
+            return new URL(BASE_URL + path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface RowExtractor {
+        void extract(HtmlTableRow row);
+    }
+
+    record Measurement(long bytesPerRow, double microsPerRow) {
+
+        @Override
+        public String toString() {
+            return String.format("%12d %12.1f", bytesPerRow, microsPerRow);
+        }
+    }
+}
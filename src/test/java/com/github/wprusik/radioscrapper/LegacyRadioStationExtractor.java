@@ -0,0 +1,170 @@
+package com.github.wprusik.radioscrapper;
+
+import com.github.wprusik.radioscrapper.jfr.CrawlEvent;
+import com.github.wprusik.radioscrapper.jfr.StationExtractEvent;
+import com.github.wprusik.radioscrapper.model.RadioStation;
+import org.apache.commons.lang3.StringUtils;
+import org.htmlunit.html.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
+
+/**
+ * The multi-pass extractor replaced by {@link RadioStationExtractor}, kept unchanged apart from the web client pool,
+ * as a reference for {@link ExtractorComparison}
+ */
+class LegacyRadioStationExtractor {
+
+    private final static Pattern KBPS_PATTERN = Pattern.compile("(?<number>\\d+)[ ](Kbps)");
+    private final static Pattern GENRES_PATTERN = Pattern.compile("(Genres: )(?<genres>(\\w+)[ ]?(((\\w+[ ])+)?\\w+)?)");
+
+    private final String baseUrl;
+    private final String category;
+    private final FileDownloader fileDownloader;
+    private final List<String> availableGenres;
+
+    LegacyRadioStationExtractor(WebClientPool webClients, String baseUrl, String category, List<String> availableGenres) {
+        this.baseUrl = baseUrl;
+        this.category = category;
+        this.fileDownloader = new FileDownloader(webClients, category);
+        this.availableGenres = availableGenres;
+    }
+
+    Optional<RadioStation> extractRadioInfo(HtmlTableRow row) {
+        StationExtractEvent event = new StationExtractEvent();
+        event.begin();
+        RadioStation station = null;
+        String outcome = CrawlEvent.FAILURE;
+        try {
+            RadioStation.Builder builder = RadioStation.builder();
+
+            for (DomElement el : row.getChildElements()) {
+                if (el instanceof HtmlTableDataCell) {
+                    processTableCell((HtmlTableDataCell) el, builder);
+                }
+            }
+            station = builder.build();
+            if (isComplete(station)) {
+                outcome = CrawlEvent.SUCCESS;
+                return Optional.of(station);
+            }
+            outcome = CrawlEvent.INCOMPLETE;
+            return Optional.empty();
+        } finally {
+            String url = station != null ? station.url() : null;
+            long bytes = event.isEnabled() && station != null && station.playlistFile() != null ? new File(station.playlistFile()).length() : 0;
+            event.finish(url, category, bytes, outcome);
+        }
+    }
+
+    private void processTableCell(HtmlTableDataCell cell, RadioStation.Builder builder) {
+        if (isPlayerSection(cell)) {
+            fetchPlaylist(cell).ifPresent(builder::playlistFile);
+        } else if (isMiddleSection(cell)) {
+            extractRadioName(cell).ifPresent(builder::name);
+            extractRadioUrl(cell).ifPresent(builder::url);
+            extractGenres(cell).ifPresent(builder::genres);
+        } else if (isRightSection(cell)) {
+            extractKbps(cell).ifPresent(builder::kbps);
+        }
+    }
+
+    private Optional<String> fetchPlaylist(HtmlTableDataCell cell) {
+        return findM3uURL(cell)
+                .flatMap(url -> fileDownloader.download(url, "m3u"))
+                .map(File::getAbsolutePath);
+    }
+
+    private Optional<String> findM3uURL(HtmlTableDataCell cell) {
+        return cell.getElementsByAttribute("a", "title", "M3U Playlist File").stream()
+                .filter(el -> el instanceof HtmlAnchor)
+                .map(el -> el.getAttribute("href"))
+                .filter(StringUtils::isNotBlank)
+                .filter(s -> s.startsWith("/servers/tools/playlistgenerator"))
+                .filter(s -> !s.contains("panel.deepradio"))
+                .map(el -> baseUrl + el)
+                .findAny();
+    }
+
+    private Optional<String> extractRadioName(HtmlTableDataCell cell) {
+        return StreamSupport.stream(cell.getChildElements().spliterator(), false)
+                .filter(el -> el instanceof HtmlHeading4)
+                .map(DomNode::getTextContent)
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .findAny();
+    }
+
+    private Optional<String> extractRadioUrl(HtmlTableDataCell cell) {
+        return StreamSupport.stream(cell.getChildren().spliterator(), false)
+                .map(el -> el.getTextContent().trim())
+                .filter(t -> t.startsWith("https://"))
+                .findAny();
+    }
+
+    private Optional<List<String>> extractGenres(HtmlTableDataCell cell) {
+        Matcher matcher = GENRES_PATTERN.matcher(cell.getTextContent());
+        if (matcher.find()) {
+            List<String> genres = new ArrayList<>();
+            String genresLine = matcher.group("genres");
+
+            for (String genre : availableGenres) {
+                if (genresLine.contains(genre)) {
+                    genres.add(genre);
+                    genresLine = genresLine.replace(genre, "");
+                }
+            }
+            if (StringUtils.isNotBlank(genresLine)) {
+                String[] unrecognizedGenres = genresLine.trim().split(" ");
+                Arrays.stream(unrecognizedGenres)
+                        .map(String::trim)
+                        .filter(s -> s.length() > 2)
+                        .forEach(genres::add);
+            }
+            return Optional.of(genres);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Integer> extractKbps(HtmlTableDataCell cell) {
+        return StreamSupport.stream(cell.getChildren().spliterator(), false)
+                .map(DomNode::getTextContent)
+                .map(text -> text.replace("\t", "").replace("\n", "").trim())
+                .filter(text -> text.contains(" Kbps"))
+                .findAny()
+                .map(KBPS_PATTERN::matcher)
+                .filter(Matcher::find)
+                .map(m -> m.group("number"))
+                .map(Integer::parseInt);
+    }
+
+    private boolean isPlayerSection(HtmlTableDataCell cell) {
+        return cell.getAttribute("id").startsWith("play_");
+    }
+
+    private boolean isMiddleSection(HtmlTableDataCell cell) {
+        for (DomElement el : cell.getChildElements()) {
+            if (el instanceof HtmlHeading4 && el.getAttribute("class").contains("text-danger")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRightSection(HtmlTableDataCell cell) {
+        return cell.getAttribute("class").contains("text-right");
+    }
+
+    private boolean isComplete(RadioStation station) {
+        return StringUtils.isNotBlank(station.name())
+                && station.genres() != null
+                && station.kbps() != null
+                && station.playlistFile() != null;
+    }
+}
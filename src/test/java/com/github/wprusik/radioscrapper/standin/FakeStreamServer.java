@@ -0,0 +1,192 @@
+package com.github.wprusik.radioscrapper.standin;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for Shoutcast and Icecast servers, used to check stream probing. Behaviour depends on the path:
+ * <ul>
+ *     <li>{@code /icy/<id>} - Shoutcast response with {@code ICY 200 OK} status line and {@code icy-br} header</li>
+ *     <li>{@code /icecast/<id>} - Icecast response over HTTP with {@code ice-audio-info} header</li>
+ *     <li>{@code /redirect/<id>} - redirect to {@code /icy/<id>}</li>
+ *     <li>{@code /dead/<id>} - 404 status</li>
+ *     <li>{@code /silent/<id>} - connection accepted, but never answered</li>
+ *     <li>{@code /stream/<id>} - one of the above, chosen by id, so that 70% of streams are alive</li>
+ * </ul>
+ * Audio is streamed until the client disconnects. The server can be set as {@link StandInSiteSettings#streamBaseUrl()},
+ * so playlists of the stand-in site point to it.
+ */
+@Slf4j
+public class FakeStreamServer implements AutoCloseable {
+
+    private static final Pattern REQUEST_PATTERN = Pattern.compile("^GET /(?<type>\\w+)/(?<id>\\d+)\\S* HTTP/1\\.\\d$");
+    private static final String[] STREAM_TYPES = {"icy", "icy", "icy", "icy", "icecast", "icecast", "redirect", "dead", "dead", "silent"};
+    private static final int[] BITRATES = {64, 96, 128, 192, 320};
+    private static final int CHUNK_BYTES = 1024;
+    private static final int BURST_CHUNKS = 8;
+    private static final long CHUNK_INTERVAL_MILLIS = 20;
+    private static final int BACKLOG = 1024;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Thread acceptor;
+    private final byte[] audioChunk = new byte[CHUNK_BYTES];
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    /**
+     * Starts the server on given port of the loopback interface
+     * @param port - 0 to use any free port
+     */
+    public FakeStreamServer(int port) {
+        try {
+            this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        new Random(0).nextBytes(audioChunk);
+        // connections are long-lived and mostly idle, so each of them gets a thread
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fake-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptor = new Thread(this::accept, "fake-stream-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.debug("Fake stream server started at {}", getBaseUrl());
+    }
+
+    public FakeStreamServer() {
+        this(0);
+    }
+
+    public String getBaseUrl() {
+        return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns whether a stream of given id, under {@code /stream/<id>}, is expected to be alive
+     */
+    public static boolean isAlive(long id) {
+        return switch (getStreamType(id)) {
+            case "icy", "icecast", "redirect" -> true;
+            default -> false;
+        };
+    }
+
+    public long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Unable to close fake stream server", e);
+        }
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                executor.execute(() -> serve(socket));
+            } catch (IOException | RejectedExecutionException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Unable to accept stream connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Matcher matcher = REQUEST_PATTERN.matcher(readRequestLine(in));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            if (!matcher.matches()) {
+                respond(out, "HTTP/1.0 400 Bad Request\r\n\r\n");
+                return;
+            }
+            long id = Long.parseLong(matcher.group("id"));
+            String type = "stream".equals(matcher.group("type")) ? getStreamType(id) : matcher.group("type");
+            int bitrate = BITRATES[(int) (id % BITRATES.length)];
+            switch (type) {
+                case "icy" -> stream(out, "ICY 200 OK\r\nicy-name: Station " + id + "\r\nicy-br: " + bitrate
+                        + "\r\ncontent-type: audio/mpeg\r\n\r\n");
+                case "icecast" -> stream(out, "HTTP/1.0 200 OK\r\nContent-Type: audio/ogg\r\nice-audio-info: channels=2;samplerate=44100;bitrate="
+                        + bitrate + "\r\nicy-name: Station " + id + "\r\n\r\n");
+                case "redirect" -> respond(out, "HTTP/1.0 302 Found\r\nLocation: /icy/" + id + "\r\n\r\n");
+                // until the client gives up
+                case "silent" -> in.transferTo(OutputStream.nullOutputStream());
+                default -> respond(out, "HTTP/1.0 404 Not Found\r\nContent-Type: text/plain\r\n\r\nNot found");
+            }
+        } catch (SocketException e) {
+            // the client disconnected, which is how probes end
+        } catch (IOException e) {
+            log.debug("Stream connection failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String readRequestLine(InputStream in) throws IOException {
+        ByteArrayOutputStream request = new ByteArrayOutputStream(512);
+        int previous = -1;
+        int current;
+        // headers are read as well, otherwise closing the socket may reset the connection before the response is read
+        while ((current = in.read()) >= 0) {
+            request.write(current);
+            if (current == '\n' && (previous == '\n' || endsWithEmptyLine(request))) {
+                break;
+            }
+            previous = current;
+        }
+        String text = request.toString(StandardCharsets.ISO_8859_1);
+        int lineEnd = text.indexOf('\r');
+        return lineEnd >= 0 ? text.substring(0, lineEnd) : text.trim();
+    }
+
+    private boolean endsWithEmptyLine(ByteArrayOutputStream request) {
+        byte[] bytes = request.toByteArray();
+        int length = bytes.length;
+        return length >= 4 && bytes[length - 2] == '\r' && bytes[length - 3] == '\n' && bytes[length - 4] == '\r';
+    }
+
+    private void stream(OutputStream out, String headers) throws IOException, InterruptedException {
+        out.write(headers.getBytes(StandardCharsets.ISO_8859_1));
+        // a burst at first, like real servers do to fill player buffers, then a steady rate
+        for (int chunk = 0; !Thread.currentThread().isInterrupted(); chunk++) {
+            out.write(audioChunk);
+            out.flush();
+            if (chunk >= BURST_CHUNKS) {
+                Thread.sleep(CHUNK_INTERVAL_MILLIS);
+            }
+        }
+    }
+
+    private void respond(OutputStream out, String response) throws IOException {
+        out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static String getStreamType(long id) {
+        return STREAM_TYPES[(int) (id % STREAM_TYPES.length)];
+    }
+}
@@ -0,0 +1,274 @@
+package com.github.wprusik.radioscrapper.standin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.wprusik.radioscrapper.ContinuousCrawlSettings;
+import com.github.wprusik.radioscrapper.InternetRadioScrapper;
+import com.github.wprusik.radioscrapper.StreamProbeSettings;
+import com.github.wprusik.radioscrapper.model.RadioCategory;
+import com.github.wprusik.radioscrapper.model.RadioStation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Crawls {@link StandInServer} end to end at given scales and reports throughput, peak heap usage and failures.
+ * <p>
+ * Usage: {@code LoadTestHarness [number of stations...]}, 1k to 1M stations by default. Server behaviour is set
+ * with system properties {@code standin.minLatencyMillis}, {@code standin.maxLatencyMillis} and {@code standin.errorRate}.
+ * <p>
+ * Long-run mode: {@code LoadTestHarness --long-run <minutes> [number of stations]} re-crawls the site continuously
+ * and samples live heap after garbage collection, to check it reaches a steady state.
+ * <p>
+ * Probe mode: {@code LoadTestHarness --probe [number of streams]} probes a catalog of streams served by
+ * {@link FakeStreamServer} and compares the results with the expected ones. Probing is set with system properties
+ * {@code probe.maxConnections}, {@code probe.timeoutMillis} and {@code probe.audioBytes}.
+ */
+public class LoadTestHarness {
+
+    private static final long[] DEFAULT_SCALES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int STATIONS_PER_PAGE = 50;
+    private static final int MAX_CATEGORIES = 100;
+    private static final long STATIONS_PER_CATEGORY = 10_000;
+    private static final long MEMORY_SAMPLING_MILLIS = 100;
+    private static final long LONG_RUN_STATIONS = 10_000;
+    private static final int LONG_RUN_SAMPLES = 20;
+    private static final double STEADY_HEAP_GROWTH = 0.1;
+    private static final long PROBE_STREAMS = 10_000;
+    private static final int PROBE_STATIONS_PER_CATEGORY = 1_000;
+
+    public static void main(String... args) {
+        if (args.length > 1 && "--long-run".equals(args[0])) {
+            long stations = args.length > 2 ? Long.parseLong(args[2]) : LONG_RUN_STATIONS;
+            runLongRun(Duration.ofMinutes(Long.parseLong(args[1])), createSettings(stations));
+            return;
+        }
+        if (args.length > 0 && "--probe".equals(args[0])) {
+            runProbe(args.length > 1 ? Long.parseLong(args[1]) : PROBE_STREAMS);
+            return;
+        }
+        long[] scales = args.length > 0 ? Stream.of(args).mapToLong(Long::parseLong).toArray() : DEFAULT_SCALES;
+        System.out.printf("%10s %10s %10s %10s %10s %10s %10s %12s  %s%n",
+                "expected", "fetched", "seconds", "st/s", "requests", "errors", "req/s", "peak heap MB", "outcome");
+        for (long scale : scales) {
+            System.out.println(run(createSettings(scale)));
+        }
+    }
+
+    static StandInSiteSettings createSettings(long stations) {
+        int categories = (int) Math.max(1, Math.min(MAX_CATEGORIES, stations / STATIONS_PER_CATEGORY));
+        int pages = (int) Math.max(1, (stations + (long) categories * STATIONS_PER_PAGE - 1) / ((long) categories * STATIONS_PER_PAGE));
+        return StandInSiteSettings.builder()
+                .categories(categories)
+                .pagesPerCategory(pages)
+                .stationsPerPage(STATIONS_PER_PAGE)
+                .minLatency(Duration.ofMillis(Long.getLong("standin.minLatencyMillis", 0)))
+                .maxLatency(Duration.ofMillis(Long.getLong("standin.maxLatencyMillis", 0)))
+                .errorRate(Double.parseDouble(System.getProperty("standin.errorRate", "0")))
+                .build();
+    }
+
+    static Result run(StandInSiteSettings settings) {
+        Path directory = createTempDirectory();
+        MemorySampler sampler = new MemorySampler();
+        try (StandInServer server = new StandInServer(settings)) {
+            InternetRadioScrapper scrapper = new InternetRadioScrapper(server.getBaseUrl(), directory.toString());
+            String outcome = "OK";
+            long start = System.nanoTime();
+            sampler.start();
+            try {
+                scrapper.fetchAll();
+            } catch (Exception e) {
+                outcome = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            long elapsed = System.nanoTime() - start;
+            sampler.interrupt();
+            // read what was saved, including categories stored before a failure
+            long fetched = scrapper.read().stream().map(RadioCategory::stations).mapToLong(List::size).sum();
+            return new Result(settings.getStationCount(), fetched, Duration.ofNanos(elapsed), server.getRequestCount(),
+                    server.getErrorCount(), sampler.getPeakHeap(), outcome);
+        } finally {
+            sampler.interrupt();
+            deleteDirectory(directory);
+        }
+    }
+
+    static void runLongRun(Duration duration, StandInSiteSettings settings) {
+        Path directory = createTempDirectory();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ContinuousCrawlSettings crawlSettings = ContinuousCrawlSettings.builder()
+                .initialInterval(Duration.ofSeconds(1))
+                .minInterval(Duration.ofSeconds(1))
+                .maxInterval(Duration.ofSeconds(1))
+                .dailyRequestBudget(Long.MAX_VALUE / 2)
+                .build();
+        try (StandInServer server = new StandInServer(settings)) {
+            InternetRadioScrapper scrapper = new InternetRadioScrapper(server.getBaseUrl(), directory.toString());
+            Thread crawler = new Thread(() -> {
+                try {
+                    scrapper.crawlContinuously(crawlSettings);
+                } catch (InterruptedException ignored) {
+                    // expected at the end of the run
+                }
+            }, "long-run-crawler");
+            crawler.setDaemon(true);
+            crawler.start();
+
+            List<Long> samples = new ArrayList<>();
+            long sampleMillis = duration.toMillis() / LONG_RUN_SAMPLES;
+            System.out.printf("%10s %12s %10s%n", "seconds", "live heap MB", "requests");
+            for (int i = 1; i <= LONG_RUN_SAMPLES; i++) {
+                Thread.sleep(sampleMillis);
+                System.gc();
+                long used = memory.getHeapMemoryUsage().getUsed();
+                samples.add(used);
+                System.out.printf("%10d %12d %10d%n", i * sampleMillis / 1000, used / (1024 * 1024), server.getRequestCount());
+            }
+            crawler.interrupt();
+            crawler.join(Duration.ofSeconds(30).toMillis());
+
+            // the first third is warm-up, while the catalog is filled for the first time
+            int third = samples.size() / 3;
+            double middle = samples.subList(third, 2 * third).stream().mapToLong(Long::longValue).average().orElse(0);
+            double last = samples.subList(2 * third, samples.size()).stream().mapToLong(Long::longValue).average().orElse(0);
+            double growth = middle > 0 ? (last - middle) / middle : 0;
+            System.out.printf("Live heap growth in the last third: %.1f%% - %s%n", growth * 100,
+                    growth <= STEADY_HEAP_GROWTH ? "steady state" : "still growing");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    static void runProbe(long streams) {
+        Path directory = createTempDirectory();
+        MemorySampler sampler = new MemorySampler();
+        StreamProbeSettings defaults = StreamProbeSettings.DEFAULT;
+        Duration timeout = Duration.ofMillis(Long.getLong("probe.timeoutMillis", defaults.timeout().toMillis()));
+        StreamProbeSettings settings = defaults.toBuilder()
+                .maxConnections(Integer.getInteger("probe.maxConnections", defaults.maxConnections()))
+                .connectTimeout(timeout.compareTo(defaults.connectTimeout()) < 0 ? timeout : defaults.connectTimeout())
+                .timeout(timeout)
+                .audioBytes(Integer.getInteger("probe.audioBytes", defaults.audioBytes()))
+                .build();
+        try (FakeStreamServer server = new FakeStreamServer()) {
+            writeStreamCatalog(directory, server.getBaseUrl(), streams);
+            InternetRadioScrapper scrapper = new InternetRadioScrapper(server.getBaseUrl(), directory.toString());
+            long start = System.nanoTime();
+            sampler.start();
+            List<RadioCategory> categories = scrapper.probeStreams(settings);
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+            sampler.interrupt();
+
+            List<RadioStation> stations = categories.stream().flatMap(c -> c.stations().stream()).toList();
+            long alive = stations.stream().filter(s -> s.probe() != null && s.probe().alive()).count();
+            long unexpected = stations.stream()
+                    .filter(s -> s.probe() == null || s.probe().alive() != FakeStreamServer.isAlive(Long.parseLong(s.name())))
+                    .count();
+            System.out.printf("%10s %10s %10s %12s %10s %10s %12s %12s%n",
+                    "streams", "seconds", "alive", "streams/min", "connections", "unexpected", "peak heap MB", "max conn");
+            System.out.printf("%10d %10.1f %10d %12.0f %10d %10d %12d %12d%n", stations.size(), seconds, alive,
+                    stations.size() / seconds * 60, server.getConnectionCount(), unexpected,
+                    sampler.getPeakHeap() / (1024 * 1024), settings.maxConnections());
+            stations.stream()
+                    .filter(s -> s.probe() != null && s.probe().error() != null)
+                    .collect(Collectors.groupingBy(s -> s.probe().error(), TreeMap::new, Collectors.counting()))
+                    .forEach((error, count) -> System.out.printf("%10d  %s%n", count, error));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sampler.interrupt();
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Writes a catalog in the layout of the scrapper's base directory, with one stream per station,
+     * named after its stream id
+     */
+    private static void writeStreamCatalog(Path directory, String streamBaseUrl, long streams) {
+        Path playlistDirectory = directory.resolve("m3u");
+        List<RadioCategory> categories = new ArrayList<>();
+        List<RadioStation> stations = new ArrayList<>();
+        try {
+            Files.createDirectories(playlistDirectory);
+            for (long id = 0; id < streams; id++) {
+                Path playlist = playlistDirectory.resolve(id + ".m3u");
+                Files.writeString(playlist, "#EXTM3U\n" + streamBaseUrl + "/stream/" + id + "\n");
+                stations.add(new RadioStation(String.valueOf(id), null, List.of("Stand-in"), 128, playlist.toString(), null));
+                if (stations.size() == PROBE_STATIONS_PER_CATEGORY || id == streams - 1) {
+                    categories.add(new RadioCategory("Category " + categories.size(), null, stations));
+                    stations = new ArrayList<>();
+                }
+            }
+            new ObjectMapper().writeValue(directory.resolve("data.json").toFile(), categories);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("ir_load_");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    record Result(long expected, long fetched, Duration elapsed, long requests, long errors, long peakHeap, String outcome) {
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            return String.format("%10d %10d %10.1f %10.1f %10d %10d %10.1f %12d  %s", expected, fetched, seconds,
+                    fetched / seconds, requests, errors, requests / seconds, peakHeap / (1024 * 1024), outcome);
+        }
+    }
+
+    static class MemorySampler extends Thread {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peakHeap = new AtomicLong();
+
+        MemorySampler() {
+            super("memory-sampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(MEMORY_SAMPLING_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long getPeakHeap() {
+            return peakHeap.get();
+        }
+    }
+}
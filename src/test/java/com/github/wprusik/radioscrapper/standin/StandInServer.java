@@ -0,0 +1,160 @@
+package com.github.wprusik.radioscrapper.standin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for <a href="http://internet-radio.com">internet-radio.com</a>, serving a synthetic site
+ * described by {@link StandInSiteSettings}. The category list is never failed on purpose, so injected errors
+ * affect the crawl instead of stopping it at once.
+ */
+@Slf4j
+public class StandInServer implements AutoCloseable {
+
+    private static final int THREADS = 16;
+    private static final Pattern CATEGORY_PATTERN = Pattern.compile("^/stations/genre(?<category>\\d+)/(page(?<page>\\d+))?$");
+
+    private final StandInSiteSettings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final StandInSiteGenerator generator;
+    private final String index;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * Starts the server on given port of the loopback interface
+     * @param port - 0 to use any free port
+     */
+    public StandInServer(StandInSiteSettings settings, int port) {
+        this.settings = settings;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String streamBaseUrl = settings.streamBaseUrl() != null ? settings.streamBaseUrl() : getBaseUrl();
+        this.generator = new StandInSiteGenerator(settings, streamBaseUrl);
+        this.index = generator.renderIndex();
+        this.executor = Executors.newFixedThreadPool(THREADS);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.debug("Stand-in server started at {} with {} stations", getBaseUrl(), settings.getStationCount());
+    }
+
+    public StandInServer(StandInSiteSettings settings) {
+        this(settings, 0);
+    }
+
+    public String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    public StandInSiteSettings getSettings() {
+        return settings;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            delay();
+            String path = exchange.getRequestURI().getPath();
+            if ("/stations/".equals(path)) {
+                respond(exchange, 200, "text/html; charset=utf-8", index);
+            } else if (shouldFail()) {
+                errorCount.incrementAndGet();
+                respond(exchange, 500, "text/plain", "Injected error");
+            } else if (StandInSiteGenerator.PLAYLIST_GENERATOR_PATH.equals(path)) {
+                handlePlaylist(exchange);
+            } else {
+                handleCategoryPage(exchange, path);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleCategoryPage(HttpExchange exchange, String path) throws IOException {
+        Matcher matcher = CATEGORY_PATTERN.matcher(path);
+        if (!matcher.matches()) {
+            respond(exchange, 404, "text/plain", "Not found");
+            return;
+        }
+        int category = Integer.parseInt(matcher.group("category"));
+        int page = matcher.group("page") != null ? Integer.parseInt(matcher.group("page")) : 1;
+        if (category < 1 || category > settings.categories() || page < 1 || page > settings.pagesPerCategory()) {
+            respond(exchange, 404, "text/plain", "Not found");
+            return;
+        }
+        respond(exchange, 200, "text/html; charset=utf-8", generator.renderCategoryPage(category, page));
+    }
+
+    private void handlePlaylist(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("u=")) {
+                    String streamUrl = URLDecoder.decode(param.substring(2), StandardCharsets.UTF_8);
+                    respond(exchange, 200, "audio/x-mpegurl", generator.renderPlaylist(streamUrl));
+                    return;
+                }
+            }
+        }
+        respond(exchange, 400, "text/plain", "Missing stream URL");
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long min = settings.minLatency().toMillis();
+        long max = settings.maxLatency().toMillis();
+        long latency = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+    }
+
+    private boolean shouldFail() {
+        return settings.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.errorRate();
+    }
+}
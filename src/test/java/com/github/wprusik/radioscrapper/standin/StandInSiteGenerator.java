@@ -0,0 +1,90 @@
+package com.github.wprusik.radioscrapper.standin;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Renders pages of the synthetic site with the markup expected by the extractors. All content is derived from
+ * category, page and row numbers, so nothing is kept in memory regardless of the site size.
+ */
+@RequiredArgsConstructor
+class StandInSiteGenerator {
+
+    static final String PLAYLIST_GENERATOR_PATH = "/servers/tools/playlistgenerator/";
+
+    private static final int[] BITRATES = {32, 48, 64, 96, 128, 192, 256, 320};
+
+    private final StandInSiteSettings settings;
+    private final String streamBaseUrl;
+
+    static String getCategoryName(int category) {
+        return "genre" + category;
+    }
+
+    static String getCategoryUri(int category) {
+        return "/stations/" + getCategoryName(category) + "/";
+    }
+
+    String renderIndex() {
+        StringBuilder html = new StringBuilder(settings.categories() * 96);
+        html.append("<!DOCTYPE html><html><head><title>Stations</title></head><body><div class=\"container\"><dl>\n");
+        for (int category = 1; category <= settings.categories(); category++) {
+            html.append("<dt class=\"text-capitalize\"><a href=\"").append(getCategoryUri(category)).append("\">")
+                    .append(getCategoryName(category)).append("</a></dt>\n")
+                    .append("<dd>").append(settings.pagesPerCategory() * settings.stationsPerPage()).append(" stations</dd>\n");
+        }
+        return html.append("</dl></div></body></html>").toString();
+    }
+
+    String renderCategoryPage(int category, int page) {
+        StringBuilder html = new StringBuilder(1024 + settings.stationsPerPage() * 1024);
+        String name = getCategoryName(category);
+        html.append("<!DOCTYPE html><html><head><title>").append(name).append("</title></head><body><div class=\"container\">\n")
+                .append("<div class=\"panel panel-default\"><div class=\"panel-heading\"><h2 class=\"panel-title\">About ")
+                .append(name).append(" radio</h2></div>\n")
+                .append("<div class=\"panel-body\"><p class=\"lead\">Synthetic ").append(name).append(" stations.</p></div></div>\n")
+                .append("<table class=\"table table-striped\"><tbody>\n");
+        for (int row = 1; row <= settings.stationsPerPage(); row++) {
+            renderStationRow(html, category, page, row);
+        }
+        html.append("</tbody></table>\n");
+        if (settings.pagesPerCategory() > 1) {
+            renderPagination(html, category);
+        }
+        return html.append("</div></body></html>").toString();
+    }
+
+    String renderPlaylist(String streamUrl) {
+        return "#EXTM3U\n" + streamUrl + "\n";
+    }
+
+    private void renderStationRow(StringBuilder html, int category, int page, int row) {
+        long id = getStationId(category, page, row);
+        String secondGenre = getCategoryName((int) (id % settings.categories()) + 1);
+        html.append("<tr>\n")
+                .append("<td id=\"play_").append(id).append("\" style=\"width:45px\"><i class=\"jp-play\"></i>\n")
+                .append("<a title=\"M3U Playlist File\" href=\"").append(PLAYLIST_GENERATOR_PATH).append("?u=")
+                .append(streamBaseUrl).append("/stream/").append(id).append("&amp;t=.m3u\">m3u</a></td>\n")
+                .append("<td><h4 class=\"text-danger overflow-ellipsis\">Station ").append(id).append("</h4>\n")
+                .append("<b>Playing now:</b> Track ").append(id).append("<br>\n")
+                .append("<a class=\"small text-success\" href=\"https://station").append(id).append(".example.com/\">")
+                .append("https://station").append(id).append(".example.com/</a><br>\n")
+                .append("Genres: <a href=\"").append(getCategoryUri(category)).append("\">").append(getCategoryName(category))
+                .append("</a> <a href=\"").append(getCategoryUri(category)).append("\">").append(secondGenre).append("</a></td>\n")
+                .append("<td class=\"text-right hidden-xs\"><p>").append(id % 1000).append(" Listeners</p>\n")
+                .append("<p>").append(BITRATES[(int) (id % BITRATES.length)]).append(" Kbps</p></td>\n")
+                .append("</tr>\n");
+    }
+
+    private void renderPagination(StringBuilder html, int category) {
+        html.append("<ul class=\"pagination\">\n<li class=\"active\"><a href=\"").append(getCategoryUri(category)).append("\">1</a></li>\n");
+        for (int page = 2; page <= settings.pagesPerCategory(); page++) {
+            html.append("<li><a href=\"").append(getCategoryUri(category)).append("page").append(page).append("\">")
+                    .append(page).append("</a></li>\n");
+        }
+        html.append("<li class=\"next\"><a href=\"").append(getCategoryUri(category)).append("page2\">&raquo;</a></li>\n</ul>\n");
+    }
+
+    private long getStationId(int category, int page, int row) {
+        return ((long) (category - 1) * settings.pagesPerCategory() + (page - 1)) * settings.stationsPerPage() + row;
+    }
+}
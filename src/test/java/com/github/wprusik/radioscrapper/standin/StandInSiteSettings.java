@@ -0,0 +1,41 @@
+package com.github.wprusik.radioscrapper.standin;
+
+import lombok.Builder;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Shape and behaviour of the synthetic site served by {@link StandInServer}
+ * @param categories - number of radio categories (genres)
+ * @param pagesPerCategory - number of station list pages in each category
+ * @param stationsPerPage - number of stations on each page
+ * @param minLatency - minimal delay before each response
+ * @param maxLatency - maximal delay before each response
+ * @param errorRate - probability of responding with HTTP 500 to category, pagination and playlist requests
+ * @param streamBaseUrl - if specified, playlists point to {@code <streamBaseUrl>/stream/<station>},
+ *                      otherwise to unreachable addresses of the stand-in server itself
+ */
+@Builder(builderClassName = "Builder", toBuilder = true)
+public record StandInSiteSettings(int categories, int pagesPerCategory, int stationsPerPage,
+                                  Duration minLatency, Duration maxLatency, double errorRate,
+                                  @Nullable String streamBaseUrl) {
+
+    public static final StandInSiteSettings DEFAULT = new StandInSiteSettings(10, 2, 50, Duration.ZERO, Duration.ZERO, 0, null);
+
+    public StandInSiteSettings {
+        if (categories < 1 || pagesPerCategory < 1 || stationsPerPage < 1) {
+            throw new IllegalArgumentException("Site must have at least one category, page and station");
+        }
+        if (minLatency.compareTo(maxLatency) > 0) {
+            throw new IllegalArgumentException("Minimal latency can't exceed maximal latency");
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1");
+        }
+    }
+
+    public long getStationCount() {
+        return (long) categories * pagesPerCategory * stationsPerPage;
+    }
+}